@@ -2,15 +2,18 @@ package com.funproj.fun;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class FunApplication {
 	public static void main(String[] args) {
-		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-		String rawPassword = "password";
-		String hashedPassword = encoder.encode(rawPassword);
-		System.out.println("Hashed password: " + hashedPassword);
-		SpringApplication.run(FunApplication.class, args);
+		SpringApplication app = new SpringApplication(FunApplication.class);
+		app.setApplicationStartup(new BufferingApplicationStartup(StartupTimingReporter.CAPACITY)); // recorded steps are reported by StartupTimingReporter
+		ConfigurableApplicationContext context = app.run(args);
+		if (context.getEnvironment().matchesProfiles("migrate")) {
+			// migrations run during context startup, nothing left to do
+			System.exit(SpringApplication.exit(context));
+		}
 	}
-}
\ No newline at end of file
+}
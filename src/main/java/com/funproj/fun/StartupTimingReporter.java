@@ -0,0 +1,88 @@
+package com.funproj.fun;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints a startup-phase timing breakdown once the application is ready.
+ *
+ * <p>Relies on the {@link BufferingApplicationStartup} installed in {@link FunApplication#main}.
+ * The report contains:
+ * <ul>
+ *   <li>JVM launch to {@code main} (class loading, CDS effect)</li>
+ *   <li>{@code main} to application ready</li>
+ *   <li>Total time per startup phase (e.g. bean post-processing, context refresh)</li>
+ *   <li>Slowest individual bean instantiations (e.g. Liquibase, connection pools)</li>
+ * </ul>
+ *
+ * <p>The buffered timeline is drained after reporting so it does not stay in memory.
+ */
+@Component
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    /** Number of startup steps buffered; enough for this context with headroom. */
+    static final int CAPACITY = 4096;
+    private static final int TOP_PHASES = 10;
+    private static final int TOP_BEANS = 5;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        StartupTimeline timeline = buffering.drainBufferedTimeline();
+
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+        StringBuilder report = new StringBuilder("Startup timing breakdown:\n");
+        report.append(String.format("  %-45s %6d ms%n", "jvm launch -> main",
+                Duration.between(jvmStart, timeline.getStartTime()).toMillis()));
+        report.append(String.format("  %-45s %6d ms%n", "main -> ready", event.getTimeTaken().toMillis()));
+
+        Map<String, Duration> phases = new HashMap<>();
+        for (StartupTimeline.TimelineEvent step : timeline.getEvents()) {
+            phases.merge(step.getStartupStep().getName(), step.getDuration(), Duration::plus);
+        }
+        report.append("  phases (nested phases overlap):\n");
+        phases.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .limit(TOP_PHASES)
+                .forEach(phase -> report.append(String.format("    %-43s %6d ms%n",
+                        phase.getKey(), phase.getValue().toMillis())));
+
+        List<StartupTimeline.TimelineEvent> beans = timeline.getEvents().stream()
+                .filter(step -> "spring.beans.instantiate".equals(step.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(TOP_BEANS)
+                .toList();
+        report.append("  slowest beans:\n");
+        for (StartupTimeline.TimelineEvent bean : beans) {
+            report.append(String.format("    %-43s %6d ms%n", beanName(bean.getStartupStep()),
+                    bean.getDuration().toMillis()));
+        }
+
+        System.out.print(report);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,75 @@
+package com.funproj.fun.controller;
+
+import com.funproj.fun.service.UserExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Controller exposing a streaming bulk export of the users table for analytics and backup jobs.
+ *
+ * <p>Only reachable with the export service credential (see
+ * {@code SecurityConfig#exportSecurityWebFilterChain}); application users are rejected.
+ */
+@Controller
+@RequestMapping("/users")
+public class UserExportController {
+
+    private final UserExportService userExportService;
+
+    /**
+     * Constructs a UserExportController with required dependencies.
+     *
+     * @param userExportService service producing the export stream
+     */
+    public UserExportController(UserExportService userExportService) {
+        this.userExportService = userExportService;
+    }
+
+    /**
+     * Streams all users as CSV or NDJSON.
+     *
+     * @param format "csv" (default) or "ndjson"
+     * @param after last id received by a previous, interrupted export; rows are resumed after it
+     * @param gzip whether to gzip the response; this is a transport encoding
+     *             ({@code Content-Encoding: gzip}), so the file name stays {@code users.csv}/{@code users.ndjson}
+     * @param exchange ServerWebExchange for writing the response
+     * @return Mono<Void> that completes when the whole export has been written
+     *
+     * @apiNote Example: {@code GET /users/export?format=ndjson&after=42&gzip=true}
+     *          Returns HTTP 400 (BAD_REQUEST) for an unknown format.
+     */
+    @GetMapping("/export")
+    public Mono<Void> export(@RequestParam(defaultValue = "csv") String format,
+                             @RequestParam(required = false) String after,
+                             @RequestParam(defaultValue = "false") boolean gzip,
+                             ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return response.setComplete();
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("users." + format.toLowerCase(Locale.ROOT))
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.writeWith(userExportService.export(exportFormat, after, gzip, response.bufferFactory()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.funproj.fun.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Represents a single login attempt recorded for auditing.
+ *
+ * <p>Events are immutable and are written in batches to the "login_events" table
+ * by the login audit pipeline rather than through a Spring Data repository.
+ *
+ * <p>{@code occurredAt} is always UTC, independent of the JVM's default zone, so audit
+ * timestamps and {@code users.last_login_at} can be compared across hosts.
+ *
+ * <p>Uses Lombok's {@code @Value} to generate an all-args constructor, getters,
+ * {@code toString()}, {@code equals()} and {@code hashCode()}.
+ */
+@Value
+public class LoginEvent {
+
+    /**
+     * Outcome of a login attempt as stored in the {@code outcome} column.
+     */
+    public enum Outcome {
+        SUCCESS,
+        FAILURE
+    }
+
+    String username;
+    Outcome outcome;
+    LocalDateTime occurredAt;
+
+    /**
+     * Creates an event for a successful login occurring now (UTC).
+     *
+     * @param username the authenticated username
+     * @return a new success event
+     */
+    public static LoginEvent success(String username) {
+        return new LoginEvent(username, Outcome.SUCCESS, LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Creates an event for a failed login occurring now (UTC).
+     *
+     * @param username the username that was supplied
+     * @return a new failure event
+     */
+    public static LoginEvent failure(String username) {
+        return new LoginEvent(username, Outcome.FAILURE, LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * @return true if this event records a successful login
+     */
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.LocalDateTime;
+
 /**
  * Represents a user entity in the system.
  *
@@ -28,5 +30,6 @@ public class User {
     private String password;
     private String email;
     private String role;
+    private LocalDateTime lastLoginAt;
 
 }
@@ -0,0 +1,48 @@
+package com.funproj.fun.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Target database for a reactive query, carried in the Reactor {@link Context}.
+ *
+ * <p>Queries run against {@link #PRIMARY} unless explicitly wrapped with
+ * {@link #onReplica(Mono)}; only read-only lookups that tolerate replication lag
+ * should be wrapped. Writes and read-after-write calls need no wrapping.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * DatabaseRoute.onReplica(userRepository.findByUsername("admin"))
+ *     .subscribe(user -> System.out.println("Found user: " + user));
+ * }</pre>
+ *
+ * @see RoutingConnectionFactory
+ */
+public enum DatabaseRoute {
+    PRIMARY,
+    REPLICA;
+
+    static final Class<DatabaseRoute> CONTEXT_KEY = DatabaseRoute.class;
+    private static final Context REPLICA_CONTEXT = Context.of(CONTEXT_KEY, REPLICA);
+
+    /**
+     * Routes the connections used by {@code source} to the read replica.
+     *
+     * @param source a read-only query
+     * @return the same query, routed to the replica
+     */
+    public static <T> Mono<T> onReplica(Mono<T> source) {
+        return source.contextWrite(REPLICA_CONTEXT);
+    }
+
+    /**
+     * Routes the connections used by {@code source} to the read replica.
+     *
+     * @param source a read-only query
+     * @return the same query, routed to the replica
+     */
+    public static <T> Flux<T> onReplica(Flux<T> source) {
+        return source.contextWrite(REPLICA_CONTEXT);
+    }
+}
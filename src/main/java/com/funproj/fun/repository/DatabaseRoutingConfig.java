@@ -0,0 +1,112 @@
+package com.funproj.fun.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Configures read/write routing between the primary database and a read replica.
+ *
+ * <p>Replaces Spring Boot's single auto-configured pool with two separately sized pools
+ * behind a {@link RoutingConnectionFactory}, so {@code DatabaseClient} and all
+ * repositories transparently use it:
+ * <ul>
+ *   <li>Primary: {@code spring.r2dbc.*}</li>
+ *   <li>Replica: {@code database.replica.*}, with the same keys as {@code spring.r2dbc.*}
+ *       (url, username, password, properties, pool); anything not set there is inherited
+ *       from the primary</li>
+ * </ul>
+ * Both pools honour every {@code pool.*} setting Spring Boot's own pool does (sizes,
+ * idle/lifetime/acquire/create timeouts, validation query and depth, min idle) and pass
+ * {@code properties.*} through as driver options. Leaving {@code database.replica.url}
+ * empty routes every query to the primary.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class DatabaseRoutingConfig {
+
+    /**
+     * Creates the routing connection factory and starts replica health checks.
+     *
+     * @param primary Spring Boot R2DBC properties describing the primary
+     * @param environment environment the replica settings are bound from
+     * @param healthCheckInterval time between replica health checks
+     * @param healthCheckTimeout maximum time for one replica health check
+     * @return the routing connection factory
+     */
+    @Bean
+    public RoutingConnectionFactory connectionFactory(
+            R2dbcProperties primary,
+            Environment environment,
+            @Value("${database.replica.health-check-interval:5s}") Duration healthCheckInterval,
+            @Value("${database.replica.health-check-timeout:2s}") Duration healthCheckTimeout) {
+        R2dbcProperties replica = replicaProperties(environment);
+        ConnectionFactory primaryFactory = connectionFactory(primary);
+        ConnectionFactory replicaFactory = StringUtils.hasText(replica.getUrl()) ? connectionFactory(replica) : null;
+
+        RoutingConnectionFactory routing = new RoutingConnectionFactory(primaryFactory, replicaFactory);
+        routing.startHealthChecks(healthCheckInterval, healthCheckTimeout);
+        return routing;
+    }
+
+    /**
+     * Binds {@code database.replica.*} on top of the primary's settings, except the url.
+     */
+    private static R2dbcProperties replicaProperties(Environment environment) {
+        Binder binder = Binder.get(environment);
+        R2dbcProperties replica = new R2dbcProperties();
+        binder.bind("spring.r2dbc", Bindable.ofInstance(replica));
+        replica.setUrl(null);
+        binder.bind("database.replica", Bindable.ofInstance(replica));
+        return replica;
+    }
+
+    /**
+     * Builds a (pooled, unless {@code pool.enabled=false}) connection factory the same way
+     * Spring Boot's R2DBC auto-configuration does.
+     */
+    private static ConnectionFactory connectionFactory(R2dbcProperties properties) {
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(properties.getUrl());
+        if (StringUtils.hasText(properties.getUsername())) {
+            builder.username(properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            builder.password(properties.getPassword());
+        }
+        builder.configure(options -> properties.getProperties()
+                .forEach((key, value) -> options.option(Option.valueOf(key), value)));
+        ConnectionFactory factory = builder.build();
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        if (!pool.isEnabled()) {
+            return factory;
+        }
+        ConnectionPoolConfiguration.Builder config = ConnectionPoolConfiguration.builder(factory);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getMaxIdleTime()).to(config::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(config::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(config::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(config::maxCreateConnectionTime);
+        map.from(pool.getInitialSize()).to(config::initialSize);
+        map.from(pool.getMaxSize()).to(config::maxSize);
+        map.from(pool.getValidationQuery()).whenHasText().to(config::validationQuery);
+        map.from(pool.getValidationDepth()).to(config::validationDepth);
+        map.from(pool.getMinIdle()).to(config::minIdle);
+        map.from(pool.getMaxValidationTime()).to(config::maxValidationTime);
+        return new ConnectionPool(config.build());
+    }
+}
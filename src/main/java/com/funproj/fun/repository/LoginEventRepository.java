@@ -0,0 +1,61 @@
+package com.funproj.fun.repository;
+
+import com.funproj.fun.model.LoginEvent;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Writes {@link LoginEvent} batches to the "login_events" table.
+ *
+ * <p>Unlike {@link UserRepository} this is not a Spring Data repository: events are
+ * append-only and always written in batches, so each batch is sent as a single
+ * multi-row INSERT through {@link DatabaseClient} instead of one statement per row.
+ */
+@Repository
+public class LoginEventRepository {
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs a new LoginEventRepository with the required DatabaseClient.
+     *
+     * @param databaseClient the reactive database client used to execute inserts
+     */
+    public LoginEventRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Inserts all events in a single statement.
+     *
+     * <p>Rows are combined with {@code INSERT ... SELECT ... FROM DUAL UNION ALL ...}
+     * because Oracle 21c does not accept a multi-row {@code VALUES} list.
+     *
+     * @param events the events to insert; must not be empty
+     * @return a Mono emitting the number of rows inserted
+     */
+    public Mono<Long> insertAll(List<LoginEvent> events) {
+        StringBuilder sql = new StringBuilder(64 + events.size() * 64)
+                .append("INSERT INTO login_events (username, outcome, occurred_at) ");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT :username").append(i)
+                    .append(", :outcome").append(i)
+                    .append(", :occurredAt").append(i)
+                    .append(" FROM DUAL");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < events.size(); i++) {
+            LoginEvent event = events.get(i);
+            spec = spec.bind("username" + i, event.getUsername())
+                    .bind("outcome" + i, event.getOutcome().name())
+                    .bind("occurredAt" + i, event.getOccurredAt());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+}
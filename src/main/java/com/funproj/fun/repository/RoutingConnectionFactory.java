@@ -0,0 +1,120 @@
+package com.funproj.fun.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Connection factory that routes each connection to the primary or the read replica.
+ *
+ * <p>The target is taken from the {@link DatabaseRoute} in the subscriber context
+ * (see {@link DatabaseRoute#onReplica(Mono)}); anything not explicitly routed goes to
+ * the primary. Replica requests fall back to the primary when:
+ * <ul>
+ *   <li>No replica is configured</li>
+ *   <li>No replica health check has passed yet</li>
+ *   <li>The last replica health check failed</li>
+ * </ul>
+ *
+ * <p>Health checks validate one replica connection per interval and flip
+ * {@link #isReplicaHealthy()} accordingly.
+ */
+public class RoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private static final Mono<Object> PRIMARY = Mono.<Object>just(DatabaseRoute.PRIMARY);
+    private static final Mono<Object> REPLICA = Mono.<Object>just(DatabaseRoute.REPLICA);
+
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private volatile boolean replicaHealthy;
+    private Disposable healthChecks;
+
+    /**
+     * Constructs a routing factory over the two pools.
+     *
+     * @param primary pool for writes and read-after-write queries
+     * @param replica pool for read-only lookups, or null to send everything to the primary
+     */
+    public RoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaHealthy = false; // until the first health check passes
+        setTargetConnectionFactories(replica != null
+                ? Map.of(DatabaseRoute.PRIMARY, primary, DatabaseRoute.REPLICA, replica)
+                : Map.of(DatabaseRoute.PRIMARY, primary));
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context ->
+                replicaHealthy && context.getOrDefault(DatabaseRoute.CONTEXT_KEY, DatabaseRoute.PRIMARY) == DatabaseRoute.REPLICA
+                        ? REPLICA
+                        : PRIMARY);
+    }
+
+    /**
+     * Starts periodic replica health checks; does nothing when no replica is configured.
+     *
+     * @param interval time between checks
+     * @param timeout maximum time to obtain and validate a connection
+     */
+    public void startHealthChecks(Duration interval, Duration timeout) {
+        if (replica == null) {
+            return;
+        }
+        healthChecks = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> checkReplica().timeout(timeout).onErrorReturn(false), 1)
+                .subscribe(this::setReplicaHealthy);
+    }
+
+    /**
+     * @return true if replica-routed queries currently go to the replica
+     */
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    void setReplicaHealthy(boolean healthy) {
+        if (healthy != replicaHealthy) {
+            System.out.println(healthy ? " Read replica is reachable, routing lookups to it"
+                    : " Read replica is unhealthy, routing lookups to primary");
+        }
+        replicaHealthy = healthy && replica != null;
+    }
+
+    private Mono<Boolean> checkReplica() {
+        return Mono.usingWhen(replica.create(),
+                connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                Connection::close);
+    }
+
+    /**
+     * Stops health checks and closes both pools.
+     */
+    @Override
+    public void destroy() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+        dispose(replica);
+        dispose(primary);
+    }
+
+    private static void dispose(ConnectionFactory factory) {
+        if (factory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.funproj.fun.repository;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 import com.funproj.fun.model.User;
 
+import java.time.LocalDateTime;
+
 /**
  * Reactive repository for {@link User} entities providing CRUD operations
  * and custom query methods.
@@ -30,4 +34,19 @@ public interface UserRepository extends ReactiveCrudRepository<User, String> {
      * }</pre>
      */
     Mono<User> findByUsername(String username);
+
+    /**
+     * Records the time of a user's most recent successful login.
+     *
+     * <p>Only moves {@code last_login_at} forward, so a delayed audit flush can
+     * never overwrite a newer value.
+     *
+     * @param username the username whose login time is updated
+     * @param lastLoginAt the time of the latest successful login, in UTC
+     * @return a Mono emitting the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE users SET last_login_at = :lastLoginAt WHERE username = :username "
+            + "AND (last_login_at IS NULL OR last_login_at < :lastLoginAt)")
+    Mono<Integer> updateLastLoginAt(String username, LocalDateTime lastLoginAt);
 }
\ No newline at end of file
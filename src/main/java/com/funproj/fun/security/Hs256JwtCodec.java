@@ -0,0 +1,557 @@
+package com.funproj.fun.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Allocation-light encoder/verifier for the application's HS256 tokens.
+ *
+ * <p>Tokens issued by {@link JwtUtil} always have the same shape: the fixed header
+ * {@code {"alg":"HS256"}} and a payload of {@code sub}, {@code iat} and {@code exp}.
+ * This codec handles exactly that shape without going through the general jjwt
+ * builder/parser and Jackson:
+ * <ul>
+ *   <li>The Base64URL header segment is encoded once</li>
+ *   <li>Each thread reuses its own initialized {@link Mac} and scratch buffers</li>
+ *   <li>Base64URL and JSON are encoded/decoded directly into those buffers</li>
+ *   <li>Signatures are compared in constant time</li>
+ * </ul>
+ *
+ * <p>Output is a standard compact JWS, so tokens remain readable by jjwt and tokens
+ * previously issued by jjwt (which use the same header) are verified here. Tokens with
+ * any other header are not {@linkplain #supports(String) supported} and must be
+ * handled by jjwt.
+ */
+final class Hs256JwtCodec {
+
+    /** Base64URL of {@code {"alg":"HS256"}}, the header jjwt writes for HS256 tokens. */
+    private static final String HEADER = "eyJhbGciOiJIUzI1NiJ9";
+    private static final String HEADER_PREFIX = HEADER + ".";
+    private static final byte[] HEADER_PREFIX_BYTES = HEADER_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int MAX_TOKEN_LENGTH = 4096; // browsers cap a cookie at 4 KB anyway
+    private static final long NO_CLAIM = Long.MIN_VALUE;
+
+    private static final byte[] ENCODE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ENCODE.length; i++) {
+            DECODE[ENCODE[i]] = i;
+        }
+    }
+
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Creates a codec signing and verifying with the given HMAC-SHA256 key.
+     *
+     * @param key the HMAC-SHA256 key shared with jjwt
+     */
+    Hs256JwtCodec(SecretKey key) {
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+    }
+
+    /**
+     * @param token the compact token to check
+     * @return true if the token uses the fixed HS256 header handled by this codec
+     */
+    boolean supports(String token) {
+        return token.startsWith(HEADER_PREFIX);
+    }
+
+    /**
+     * Encodes and signs a token with the fixed {@code sub}/{@code iat}/{@code exp} payload.
+     *
+     * @param subject the subject claim
+     * @param issuedAt issued-at time in epoch seconds
+     * @param expiresAt expiration time in epoch seconds
+     * @return the compact token
+     */
+    String encode(String subject, long issuedAt, long expiresAt) {
+        Scratch s = scratch.get();
+
+        // payload JSON: {"sub":"...","iat":n,"exp":n}
+        byte[] json = s.ensureJson(subject.length() * 6 + 64);
+        int p = writeAscii(json, 0, "{\"sub\":\"");
+        p = writeJsonString(json, p, subject);
+        p = writeAscii(json, p, "\",\"iat\":");
+        p = writeLong(json, p, issuedAt);
+        p = writeAscii(json, p, ",\"exp\":");
+        p = writeLong(json, p, expiresAt);
+        json[p++] = '}';
+
+        byte[] out = s.ensureToken(HEADER_PREFIX_BYTES.length + encodedLength(p) + 1 + encodedLength(SIGNATURE_LENGTH));
+        System.arraycopy(HEADER_PREFIX_BYTES, 0, out, 0, HEADER_PREFIX_BYTES.length);
+        int len = encodeBase64Url(json, 0, p, out, HEADER_PREFIX_BYTES.length);
+
+        s.sign(out, len);
+        out[len++] = '.';
+        len = encodeBase64Url(s.signature, 0, SIGNATURE_LENGTH, out, len);
+        return new String(out, 0, len, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verifies a {@linkplain #supports(String) supported} token and extracts its subject.
+     *
+     * <p>The token is rejected if it is malformed, its signature does not match, it has
+     * expired ({@code exp}) or is not yet valid ({@code nbf}), mirroring jjwt with no
+     * clock skew.
+     *
+     * @param token the compact token
+     * @param nowMillis current time in epoch milliseconds
+     * @return the subject, or null if the token is invalid or has no subject
+     */
+    String verify(String token, long nowMillis) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH || !supports(token)) {
+            return null;
+        }
+        Scratch s = scratch.get();
+        byte[] in = s.ensureToken(length);
+        int dot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (i >= HEADER_PREFIX.length()) {
+                    if (dot >= 0) {
+                        return null;
+                    }
+                    dot = i;
+                }
+            } else if (c >= 128 || DECODE[c] < 0) {
+                return null;
+            }
+            in[i] = (byte) c;
+        }
+        if (dot < 0) {
+            return null;
+        }
+
+        // signature: decode and compare in constant time
+        if (decodeBase64Url(in, dot + 1, length, s.received, 0) != SIGNATURE_LENGTH) {
+            return null;
+        }
+        s.sign(in, dot);
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= s.signature[i] ^ s.received[i];
+        }
+        if (diff != 0) {
+            return null;
+        }
+
+        int payloadStart = HEADER_PREFIX.length();
+        byte[] json = s.ensureJson(decodedLength(dot - payloadStart));
+        int jsonLength = decodeBase64Url(in, payloadStart, dot, json, 0);
+        PayloadParser claims = s.parser;
+        if (jsonLength < 0 || !claims.parse(json, jsonLength)) {
+            return null;
+        }
+        if (claims.expiresAt != NO_CLAIM && nowMillis > claims.expiresAt * 1000) {
+            return null;
+        }
+        if (claims.notBefore != NO_CLAIM && nowMillis < claims.notBefore * 1000) {
+            return null;
+        }
+        return claims.subject;
+    }
+
+    private static int encodedLength(int bytes) {
+        return (bytes / 3) * 4 + (bytes % 3 == 0 ? 0 : bytes % 3 + 1);
+    }
+
+    private static int decodedLength(int chars) {
+        return (chars / 4) * 3 + Math.max(0, chars % 4 - 1);
+    }
+
+    private static int encodeBase64Url(byte[] src, int off, int len, byte[] dst, int dp) {
+        int end = off + len - len % 3;
+        int sp = off;
+        while (sp < end) {
+            int bits = (src[sp++] & 0xff) << 16 | (src[sp++] & 0xff) << 8 | (src[sp++] & 0xff);
+            dst[dp++] = ENCODE[bits >>> 18 & 0x3f];
+            dst[dp++] = ENCODE[bits >>> 12 & 0x3f];
+            dst[dp++] = ENCODE[bits >>> 6 & 0x3f];
+            dst[dp++] = ENCODE[bits & 0x3f];
+        }
+        int remaining = off + len - sp;
+        if (remaining == 1) {
+            int bits = src[sp] & 0xff;
+            dst[dp++] = ENCODE[bits >>> 2];
+            dst[dp++] = ENCODE[(bits << 4) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[sp] & 0xff) << 8 | (src[sp + 1] & 0xff);
+            dst[dp++] = ENCODE[bits >>> 10];
+            dst[dp++] = ENCODE[(bits >>> 4) & 0x3f];
+            dst[dp++] = ENCODE[(bits << 2) & 0x3f];
+        }
+        return dp;
+    }
+
+    /**
+     * Decodes unpadded Base64URL; callers have already checked every byte is in the alphabet.
+     *
+     * <p>Only the canonical encoding is accepted: unused low bits of the last character
+     * must be zero, so no two distinct strings decode to the same bytes.
+     *
+     * @return the number of bytes written, or -1 if the input is not canonical Base64
+     */
+    private static int decodeBase64Url(byte[] src, int from, int to, byte[] dst, int dp) {
+        int len = to - from;
+        if (len % 4 == 1 || dp + decodedLength(len) > dst.length) {
+            return -1;
+        }
+        int start = dp;
+        int sp = from;
+        int end = to - len % 4;
+        while (sp < end) {
+            int bits = DECODE[src[sp++]] << 18 | DECODE[src[sp++]] << 12 | DECODE[src[sp++]] << 6 | DECODE[src[sp++]];
+            dst[dp++] = (byte) (bits >>> 16);
+            dst[dp++] = (byte) (bits >>> 8);
+            dst[dp++] = (byte) bits;
+        }
+        int remaining = to - sp;
+        if (remaining == 2) {
+            int bits = DECODE[src[sp]] << 6 | DECODE[src[sp + 1]];
+            if ((bits & 0xf) != 0) {
+                return -1;
+            }
+            dst[dp++] = (byte) (bits >>> 4);
+        } else if (remaining == 3) {
+            int bits = DECODE[src[sp]] << 12 | DECODE[src[sp + 1]] << 6 | DECODE[src[sp + 2]];
+            if ((bits & 0x3) != 0) {
+                return -1;
+            }
+            dst[dp++] = (byte) (bits >>> 10);
+            dst[dp++] = (byte) (bits >>> 2);
+        }
+        return dp - start;
+    }
+
+    private static int writeAscii(byte[] dst, int p, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            dst[p++] = (byte) s.charAt(i);
+        }
+        return p;
+    }
+
+    private static int writeLong(byte[] dst, int p, long value) {
+        if (value < 0) {
+            dst[p++] = '-';
+            value = -value;
+        }
+        int start = p;
+        do {
+            dst[p++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = p - 1; i < j; i++, j--) {
+            byte t = dst[i];
+            dst[i] = dst[j];
+            dst[j] = t;
+        }
+        return p;
+    }
+
+    /**
+     * Writes the JSON string body (without quotes) as UTF-8; lone surrogates are
+     * written as {@code \\u} escapes so the output is always valid JSON.
+     */
+    private static int writeJsonString(byte[] dst, int p, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                dst[p++] = '\\';
+                dst[p++] = (byte) c;
+            } else if (c < 0x20) {
+                p = writeUnicodeEscape(dst, p, c);
+            } else if (c < 0x80) {
+                dst[p++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[p++] = (byte) (0xc0 | c >> 6);
+                dst[p++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[p++] = (byte) (0xf0 | cp >> 18);
+                dst[p++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                dst[p++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                dst[p++] = (byte) (0x80 | cp & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                p = writeUnicodeEscape(dst, p, c);
+            } else {
+                dst[p++] = (byte) (0xe0 | c >> 12);
+                dst[p++] = (byte) (0x80 | c >> 6 & 0x3f);
+                dst[p++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        return p;
+    }
+
+    private static int writeUnicodeEscape(byte[] dst, int p, char c) {
+        dst[p++] = '\\';
+        dst[p++] = 'u';
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            dst[p++] = (byte) Character.forDigit(c >> shift & 0xf, 16);
+        }
+        return p;
+    }
+
+    /**
+     * Per-thread state: the initialized Mac and reusable buffers.
+     */
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private final byte[] received = new byte[SIGNATURE_LENGTH + 2];
+        private byte[] token = new byte[512];
+        private byte[] json = new byte[384];
+        private final PayloadParser parser = new PayloadParser();
+
+        Scratch(SecretKey key) {
+            try {
+                this.mac = Mac.getInstance("HmacSHA256");
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        }
+
+        void sign(byte[] input, int length) {
+            mac.update(input, 0, length);
+            try {
+                mac.doFinal(signature, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] ensureToken(int capacity) {
+            if (token.length < capacity) {
+                token = new byte[capacity];
+            }
+            return token;
+        }
+
+        byte[] ensureJson(int capacity) {
+            if (json.length < capacity) {
+                json = new byte[capacity];
+            }
+            return json;
+        }
+    }
+
+    /**
+     * Minimal parser for a flat JSON object of registered claims.
+     *
+     * <p>Reused per thread. {@code sub} must be a string and {@code exp}/{@code nbf} integers;
+     * other members with scalar values are skipped. Nested objects or arrays are rejected.
+     */
+    private static final class PayloadParser {
+        private byte[] buf;
+        private int end;
+        private int pos;
+        String subject;
+        long expiresAt;
+        long notBefore;
+
+        boolean parse(byte[] buf, int end) {
+            this.buf = buf;
+            this.end = end;
+            this.pos = 0;
+            this.subject = null;
+            this.expiresAt = NO_CLAIM;
+            this.notBefore = NO_CLAIM;
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return trailingWhitespaceOnly();
+            }
+            do {
+                skipWhitespace();
+                if (pos >= end || buf[pos] != '"') {
+                    return false;
+                }
+                int keyStart = pos + 1;
+                if (!skipString()) {
+                    return false;
+                }
+                int keyEnd = pos - 1;
+                skipWhitespace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!parseMember(keyStart, keyEnd)) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume('}') && trailingWhitespaceOnly();
+        }
+
+        private boolean parseMember(int keyStart, int keyEnd) {
+            if (keyIs(keyStart, keyEnd, "sub")) {
+                subject = readString();
+                return subject != null;
+            }
+            if (keyIs(keyStart, keyEnd, "exp")) {
+                expiresAt = readLong();
+                return expiresAt != NO_CLAIM;
+            }
+            if (keyIs(keyStart, keyEnd, "nbf")) {
+                notBefore = readLong();
+                return notBefore != NO_CLAIM;
+            }
+            return skipScalar();
+        }
+
+        private boolean keyIs(int start, int keyEnd, String name) {
+            if (keyEnd - start != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (buf[start + i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String readString() {
+            if (pos >= end || buf[pos] != '"') {
+                return null;
+            }
+            int start = pos + 1;
+            if (!skipString()) {
+                return null;
+            }
+            int stringEnd = pos - 1;
+            int backslash = -1;
+            for (int i = start; i < stringEnd; i++) {
+                if (buf[i] == '\\') {
+                    backslash = i;
+                    break;
+                }
+            }
+            if (backslash < 0) {
+                return new String(buf, start, stringEnd - start, StandardCharsets.UTF_8);
+            }
+            StringBuilder sb = new StringBuilder(stringEnd - start);
+            int segment = start;
+            for (int i = backslash; i < stringEnd; i++) {
+                if (buf[i] != '\\') {
+                    continue;
+                }
+                sb.append(new String(buf, segment, i - segment, StandardCharsets.UTF_8));
+                byte e = buf[++i];
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append((char) e);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (i + 4 >= stringEnd) {
+                            return null;
+                        }
+                        int cp = 0;
+                        for (int k = 1; k <= 4; k++) {
+                            int digit = Character.digit(buf[i + k], 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            cp = cp << 4 | digit;
+                        }
+                        sb.append((char) cp);
+                        i += 4;
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+                segment = i + 1;
+            }
+            sb.append(new String(buf, segment, stringEnd - segment, StandardCharsets.UTF_8));
+            return sb.toString();
+        }
+
+        private long readLong() {
+            boolean negative = consume('-');
+            int start = pos;
+            long value = 0;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                if (pos - start >= 18) {
+                    return NO_CLAIM;
+                }
+                value = value * 10 + (buf[pos++] - '0');
+            }
+            if (pos == start) {
+                return NO_CLAIM;
+            }
+            return negative ? -value : value;
+        }
+
+        /** Advances past a string starting at the current quote; pos ends after the closing quote. */
+        private boolean skipString() {
+            pos++;
+            while (pos < end) {
+                byte b = buf[pos++];
+                if (b == '\\') {
+                    pos++;
+                } else if (b == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean skipScalar() {
+            if (pos >= end) {
+                return false;
+            }
+            byte b = buf[pos];
+            if (b == '"') {
+                return skipString();
+            }
+            if (b == '{' || b == '[') {
+                return false;
+            }
+            int start = pos;
+            while (pos < end && buf[pos] != ',' && buf[pos] != '}'
+                    && buf[pos] != ' ' && buf[pos] != '\t' && buf[pos] != '\n' && buf[pos] != '\r') {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && buf[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\n' || buf[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private boolean trailingWhitespaceOnly() {
+            skipWhitespace();
+            return pos == end;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.funproj.fun.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -29,14 +28,17 @@ import java.util.Collections;
 @Component
 public class JwtAuthenticationWebFilter implements WebFilter {
     private final JwtUtil jwtUtil;
+    private final RoutePolicy routePolicy;
 
     /**
      * Constructs the JWT authentication filter with required dependencies.
      *
      * @param jwtUtil Utility service for JWT token validation and processing
+     * @param routePolicy Route table deciding which paths are public
      */
-    public JwtAuthenticationWebFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationWebFilter(JwtUtil jwtUtil, RoutePolicy routePolicy) {
         this.jwtUtil = jwtUtil;
+        this.routePolicy = routePolicy;
     }
 
     /**
@@ -44,9 +46,9 @@ public class JwtAuthenticationWebFilter implements WebFilter {
      *
      * <p>The filter executes the following workflow:
      * <ol>
-     *   <li>Checks if request should bypass authentication (public endpoints)</li>
+     *   <li>Checks if request should bypass authentication (public endpoints in {@link RoutePolicy})</li>
      *   <li>Extracts JWT token from 'jwt' cookie if present</li>
-     *   <li>Validates token using JwtUtil</li>
+     *   <li>Validates token and extracts the username in one pass using JwtUtil</li>
      *   <li>If valid, creates Authentication object and sets security context</li>
      *   <li>Continues filter chain with appropriate authentication state</li>
      * </ol>
@@ -57,14 +59,13 @@ public class JwtAuthenticationWebFilter implements WebFilter {
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain){
-        if (shouldSkipFilter(exchange.getRequest())){
+        if (routePolicy.isPublic(exchange.getRequest())){
             return chain.filter(exchange);
         }
 
         return Mono.justOrEmpty(exchange.getRequest().getCookies().getFirst("jwt"))
                 .map(HttpCookie::getValue)
-                .filter(jwtUtil::validateToken)
-                .map(jwtUtil::getUsernameFromToken)
+                .mapNotNull(jwtUtil::getVerifiedSubject)
                 .flatMap(username -> {
                     Authentication auth = new UsernamePasswordAuthenticationToken(
                             username, null, Collections.emptyList());
@@ -73,19 +74,4 @@ public class JwtAuthenticationWebFilter implements WebFilter {
                 })
                 .switchIfEmpty(chain.filter(exchange));
     }
-
-    /**
-     * Determines if a request should bypass JWT authentication.
-     *
-     * @param request The incoming HTTP request
-     * @return true if the request path matches whitelisted endpoints, false otherwise
-     */
-    private boolean shouldSkipFilter(ServerHttpRequest request){
-        String path = request.getPath().toString();
-        return path.startsWith("/login") ||
-                path.startsWith("/register") ||
-                path.startsWith("/css/") ||
-                path.startsWith("/js/") ||
-                path.startsWith("/auth/");
-    }
 }
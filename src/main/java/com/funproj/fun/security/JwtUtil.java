@@ -24,7 +24,9 @@ import java.util.Date;
  *   <li>Username extraction from tokens</li>
  * </ul>
  *
- * <p>Uses HMAC-SHA256 algorithm for signing and verification.
+ * <p>Uses HMAC-SHA256 algorithm for signing and verification. Tokens are issued and
+ * verified through {@link Hs256JwtCodec}; the jjwt parser is only used for tokens with
+ * a different header and for {@link #extractAllClaims(String)}.
  */
 @Component
 public class JwtUtil {
@@ -35,6 +37,7 @@ public class JwtUtil {
     private static final long EXPIRATION_TIME = 1000 * 60 * 60; // 1 hour
     private final SecretKey secretKey;
     private final long expirationTime;
+    private final Hs256JwtCodec codec;
 
     /**
      * Constructs a JwtUtil instance with configurable secret and expiration.
@@ -47,6 +50,7 @@ public class JwtUtil {
             @Value("${jwt.expiration:3600000}") long expirationTime) {
         this.secretKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
         this.expirationTime = EXPIRATION_TIME;
+        this.codec = new Hs256JwtCodec(secretKey);
     }
 
     /**
@@ -56,14 +60,10 @@ public class JwtUtil {
      * @return Mono containing the generated token string
      */
     public Mono<String> generateToken(String username) {
-        return Mono.fromCallable(() ->
-                Jwts.builder()
-                        .subject(username)
-                        .issuedAt(Date.from(Instant.now()))
-                        .expiration(Date.from(Instant.now().plusMillis(expirationTime)))
-                        .signWith(secretKey, Jwts.SIG.HS256)
-                        .compact()
-        );
+        return Mono.fromCallable(() -> {
+            long now = System.currentTimeMillis();
+            return codec.encode(username, now / 1000, (now + expirationTime) / 1000);
+        });
     }
 
     /**
@@ -101,26 +101,40 @@ public class JwtUtil {
      * @return Mono containing the username, or empty Mono if token is invalid
      */
     public Mono<String> getUsernameFromToken(String token) {
-        return extractAllClaims(token)
-                .map(Claims::getSubject);
+        return Mono.fromCallable(() -> getVerifiedSubject(token));
     }
 
     /**
-     * Synchronous method to validate a token's signature and structure.
-     * Primarily used by filter chains that require non-reactive validation.
+     * Synchronous method that validates a token and returns its subject in one pass.
+     * Primarily used by filter chains so each request verifies the signature only once.
      *
      * @param token the JWT token to validate
-     * @return true if the token is valid, false otherwise
+     * @return the username, or null if the token is invalid or expired
      */
-    public boolean validateToken(String token) {
+    public String getVerifiedSubject(String token) {
+        if (codec.supports(token)) {
+            return codec.verify(token, System.currentTimeMillis());
+        }
         try {
-            Jwts.parser()
+            return Jwts.parser()
                     .verifyWith(secretKey)
                     .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+                    .parseSignedClaims(token)
+                    .getPayload()
+                    .getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
+
+    /**
+     * Synchronous method to validate a token's signature and structure.
+     * Primarily used by filter chains that require non-reactive validation.
+     *
+     * @param token the JWT token to validate
+     * @return true if the token is valid, false otherwise
+     */
+    public boolean validateToken(String token) {
+        return getVerifiedSubject(token) != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.funproj.fun.security;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single source of truth for the access level of each request path.
+ *
+ * <p>Routes are declared once in {@link #PUBLIC_ROUTES} and {@link #SERVICE_ROUTES} and
+ * compiled into a prefix trie keyed by path segment. Both {@link SecurityConfig}
+ * (authorization rules and which filter chain applies) and
+ * {@link JwtAuthenticationWebFilter} (whether to look for a token) consult this table,
+ * so they can no longer drift apart.
+ *
+ * <p>Route syntax:
+ * <ul>
+ *   <li>{@code /login} - matches exactly that path; {@code /login/} does not match</li>
+ *   <li>{@code /css/**} - matches {@code /css}, {@code /css/} and everything below it</li>
+ * </ul>
+ * Any path not matched is {@link Access#AUTHENTICATED}. Matching follows Spring 6
+ * {@code PathPattern} semantics as used by {@code pathMatchers(...)}: trailing slashes
+ * and empty segments ({@code //}) are not ignored, so an exact route never opens up
+ * a variant of its path.
+ *
+ * <p>Lookups walk the already-parsed {@link PathContainer} segments of the request,
+ * so a decision is O(path length) and allocates nothing.
+ */
+@Component
+public class RoutePolicy {
+
+    /**
+     * Access level resolved for a request path.
+     */
+    public enum Access {
+        PUBLIC,
+        AUTHENTICATED,
+        /** Machine-to-machine endpoints, served by their own chain with a service credential. */
+        SERVICE
+    }
+
+    /** Public endpoints; everything else requires authentication. */
+    private static final List<String> PUBLIC_ROUTES = List.of(
+            "/",
+            "/login",
+            "/register",
+            "/css/**",
+            "/js/**",
+            "/auth/**"
+    );
+
+    /** Endpoints for service clients only; application users are never let in. */
+    private static final List<String> SERVICE_ROUTES = List.of(
+            "/users/export"
+    );
+
+    private static final String SUBTREE = "**";
+    private static final Mono<ServerWebExchangeMatcher.MatchResult> MATCH = ServerWebExchangeMatcher.MatchResult.match();
+    private static final Mono<ServerWebExchangeMatcher.MatchResult> NO_MATCH = ServerWebExchangeMatcher.MatchResult.notMatch();
+
+    private final Node root = new Node();
+
+    /**
+     * Compiles {@link #PUBLIC_ROUTES} and {@link #SERVICE_ROUTES} into the lookup trie.
+     */
+    public RoutePolicy() {
+        for (String route : PUBLIC_ROUTES) {
+            add(route, Access.PUBLIC);
+        }
+        for (String route : SERVICE_ROUTES) {
+            add(route, Access.SERVICE);
+        }
+    }
+
+    /**
+     * Resolves the access level for a request.
+     *
+     * @param request the incoming HTTP request
+     * @return the access level of the most specific matching route
+     */
+    public Access resolve(ServerHttpRequest request) {
+        return resolve(request.getPath().pathWithinApplication());
+    }
+
+    /**
+     * Resolves the access level for a parsed path.
+     *
+     * <p>An exact route on the final segment wins; otherwise the deepest enclosing
+     * {@code /**} route applies. A trailing slash or an empty segment stops the walk,
+     * so only an enclosing {@code /**} route can still match.
+     *
+     * @param path the parsed request path
+     * @return the access level of the most specific matching route
+     */
+    public Access resolve(PathContainer path) {
+        Node node = root;
+        Access inherited = root.subtree != null ? root.subtree : Access.AUTHENTICATED;
+        List<PathContainer.Element> elements = path.elements();
+        if (elements.isEmpty()) {
+            return inherited;
+        }
+        boolean afterSeparator = false;
+        for (int i = 0; i < elements.size(); i++) {
+            if (!(elements.get(i) instanceof PathContainer.PathSegment segment)) {
+                if (afterSeparator) {
+                    return inherited; // empty segment
+                }
+                afterSeparator = true;
+                continue;
+            }
+            if (!afterSeparator) {
+                return inherited; // relative path
+            }
+            node = node.children.get(segment.valueToMatch());
+            if (node == null) {
+                return inherited;
+            }
+            if (node.subtree != null) {
+                inherited = node.subtree;
+            }
+            afterSeparator = false;
+        }
+        if (afterSeparator && node != root) {
+            return inherited; // trailing slash
+        }
+        return node.exact != null ? node.exact : inherited;
+    }
+
+    /**
+     * @param request the incoming HTTP request
+     * @return true if the request path is public
+     */
+    public boolean isPublic(ServerHttpRequest request) {
+        return resolve(request) == Access.PUBLIC;
+    }
+
+    /**
+     * Exposes the public routes as a matcher for {@code authorizeExchange}.
+     *
+     * @return matcher that matches public requests
+     */
+    public ServerWebExchangeMatcher publicRoutes() {
+        return exchange -> isPublic(exchange.getRequest()) ? MATCH : NO_MATCH;
+    }
+
+    /**
+     * Exposes the service routes as a matcher for a filter chain's {@code securityMatcher}.
+     *
+     * @return matcher that matches service-only requests
+     */
+    public ServerWebExchangeMatcher serviceRoutes() {
+        return exchange -> resolve(exchange.getRequest()) == Access.SERVICE ? MATCH : NO_MATCH;
+    }
+
+    private void add(String route, Access access) {
+        Node node = root;
+        String[] segments = route.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (SUBTREE.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'/**' is only supported at the end of a route: " + route);
+                }
+                node.subtree = access;
+                return;
+            }
+            node = node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        node.exact = access;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Access exact;
+        private Access subtree;
+    }
+}
@@ -1,19 +1,27 @@
 package com.funproj.fun.security;
 
+import com.funproj.fun.repository.DatabaseRoute;
 import com.funproj.fun.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
 
 /**
  * Security configuration class for the application.
@@ -22,6 +30,7 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
  * <p>This class defines:
  * <ul>
  *   <li>Security filter chain with path-based access rules</li>
+ *   <li>Separate filter chain for the bulk user export (service credential only)</li>
  *   <li>JWT authentication filter setup</li>
  *   <li>Authentication manager configuration</li>
  *   <li>User details service implementation</li>
@@ -31,17 +40,64 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
+    private static final String EXPORT_ROLE = "EXPORT";
+
     @Autowired
     UserRepository userRepository;
     private final JwtAuthenticationWebFilter jwtFilter;
+    private final RoutePolicy routePolicy;
 
     /**
      * Constructs a new SecurityConfig with required dependencies.
      *
      * @param jwtFilter the JWT authentication filter to be used
+     * @param routePolicy the route table defining public and service endpoints
      */
-    public SecurityConfig(JwtAuthenticationWebFilter jwtFilter) {
+    public SecurityConfig(JwtAuthenticationWebFilter jwtFilter, RoutePolicy routePolicy) {
         this.jwtFilter = jwtFilter;
+        this.routePolicy = routePolicy;
+    }
+
+    /**
+     * Configures the security filter chain for the bulk user export.
+     *
+     * <p>Applies to the {@link RoutePolicy.Access#SERVICE} routes declared in
+     * {@link RoutePolicy}, so the export path is declared in one place. The export dumps the whole users table, so it is not open to application users:
+     * self-registered accounts and their JWT cookies are ignored here. Only the service
+     * credential configured under {@code export.client.*} (for analytics/backup jobs)
+     * is accepted, over HTTP Basic, and it is granted role {@code EXPORT}. While no
+     * credential is configured every export request is rejected.
+     *
+     * @param http the ServerHttpSecurity to configure
+     * @param passwordEncoder encoder matching {@code export.client.password-hash}
+     * @param username service account username
+     * @param passwordHash BCrypt hash of the service account password
+     * @return the export SecurityWebFilterChain, consulted before the main chain
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityWebFilterChain exportSecurityWebFilterChain(
+            ServerHttpSecurity http,
+            PasswordEncoder passwordEncoder,
+            @Value("${export.client.username:}") String username,
+            @Value("${export.client.password-hash:}") String passwordHash) {
+        http.securityMatcher(routePolicy.serviceRoutes())
+                .csrf(csrf -> csrf.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()) // stateless service calls
+                .authorizeExchange(auth -> auth.anyExchange().hasRole(EXPORT_ROLE));
+        if (StringUtils.hasText(username) && StringUtils.hasText(passwordHash)) {
+            UserDetailsRepositoryReactiveAuthenticationManager exportClients = new UserDetailsRepositoryReactiveAuthenticationManager(
+                    new MapReactiveUserDetailsService(User.withUsername(username)
+                            .password(passwordHash)
+                            .roles(EXPORT_ROLE)
+                            .build()));
+            exportClients.setPasswordEncoder(passwordEncoder);
+            http.httpBasic(basic -> basic.authenticationManager(exportClients));
+        } else {
+            System.out.println(" No export.client credential configured, service routes are disabled");
+            http.httpBasic(basic -> basic.disable());
+        }
+        return http.build();
     }
 
     /**
@@ -56,7 +112,7 @@ public class SecurityConfig {
         return http
                 .csrf(csrf -> csrf.disable())
                 .authorizeExchange(auth -> auth
-                        .pathMatchers("/", "/login", "/register", "/css/**", "/js/**", "/auth/**").permitAll() // public endpoints
+                        .matchers(routePolicy.publicRoutes()).permitAll() // public endpoints, declared in RoutePolicy
                         .anyExchange().authenticated() // Require authentication for any other endpoint ( home )
                 )
 //                    .formLogin(form -> form // not used here, using custom login endpoint instead of form validation
@@ -96,12 +152,21 @@ public class SecurityConfig {
     /**
      * Creates a reactive user details service that fetches users from the repository.
      *
+     * <p>Lookups go to the read replica. A user missing there, or a replica that fails
+     * mid-lookup, is looked up again on the primary, so logging in right after
+     * registering works despite replication lag and a replica outage never blocks logins.
+     *
      * @param userRepository the user repository to fetch user details from
      * @return configured ReactiveUserDetailsService
      */
     @Bean
     public ReactiveUserDetailsService userDetailsService(UserRepository userRepository) { // added repo to args
-        return username -> userRepository.findByUsername(username)
+        return username -> DatabaseRoute.onReplica(userRepository.findByUsername(username))
+                .onErrorResume(e -> {
+                    System.err.println("Replica lookup failed, retrying on primary: " + e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> userRepository.findByUsername(username))) // read-after-write fallback
                 .map(user -> User.withUsername(user.getUsername())
                         .password(user.getPassword()) // password must already be hashed in db
                         .roles("USER") // Modify based on your roles setup
@@ -1,5 +1,6 @@
 package com.funproj.fun.service;
 
+import com.funproj.fun.model.LoginEvent;
 import com.funproj.fun.model.User;
 import com.funproj.fun.repository.UserRepository;
 import com.funproj.fun.security.JwtUtil;
@@ -24,6 +25,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final LoginAuditService loginAuditService;
 
     /**
      * Constructs the AuthService with required dependencies.
@@ -32,16 +34,19 @@ public class AuthService {
      * @param passwordEncoder Encodes passwords securely
      * @param userRepository DAO for user data operations
      * @param jwtUtil Utility for JWT token generation
+     * @param loginAuditService Write-behind sink for login audit events
      */
     @Autowired
     public AuthService(ReactiveAuthenticationManager reactiveAuthenticationManager,
                        PasswordEncoder passwordEncoder,
                        UserRepository userRepository,
-                       JwtUtil jwtUtil){
+                       JwtUtil jwtUtil,
+                       LoginAuditService loginAuditService){
         this.reactiveAuthenticationManager = reactiveAuthenticationManager;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
+        this.loginAuditService = loginAuditService;
     }
 
     /**
@@ -54,8 +59,9 @@ public class AuthService {
      * @implNote Flow:
      * 1. Creates authentication token with credentials
      * 2. Delegates to ReactiveAuthenticationManager
-     * 3. On success: generates JWT token
-     * 4. On failure: returns error message
+     * 3. On success: records a login event and generates JWT token
+     * 4. On failure: records a failed login event and returns error message
+     * Audit events are queued, never written inline (see {@link LoginAuditService})
      */
     public Mono<String> authenticate(String username, String password){
         String hashedPassword = passwordEncoder.encode(password);
@@ -65,6 +71,7 @@ public class AuthService {
                     new UsernamePasswordAuthenticationToken(username, password) // creates the token for passing into authManager.authenticate()
             ).doOnNext(auth -> System.out.println("Authenticated: " + auth.isAuthenticated())).doOnError(err -> System.err.println("Auth failed: " + err.getMessage()))
             .flatMap(authentication -> {
+                loginAuditService.record(LoginEvent.success(username));
                 // Ensure jwtUtil.generateToken() returns Mono<String> with the actual token
                 return jwtUtil.generateToken(username)
                                 .flatMap(token -> {
@@ -74,6 +81,7 @@ public class AuthService {
             })
             .onErrorResume(AuthenticationException.class, e-> {
                 // handle authentication failure
+                loginAuditService.record(LoginEvent.failure(username));
                 return Mono.just("Invalid username and or password");
                 //return Mono.error(new RuntimeException("Invalid username or password", e));
             });
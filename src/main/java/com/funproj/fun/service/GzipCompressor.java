@@ -0,0 +1,133 @@
+package com.funproj.fun.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming gzip compression for a {@link DataBuffer} stream.
+ *
+ * <p>Feeds each input buffer's memory to a raw {@link Deflater} and frames the output
+ * with the gzip header and CRC32/size trailer (RFC 1952), so a response can be
+ * compressed chunk by chunk without buffering it. Not thread-safe: one instance per
+ * stream, created by {@link #compress(Flux, DataBufferFactory)}.
+ */
+final class GzipCompressor {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final DataBufferFactory factory;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    private GzipCompressor(DataBufferFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Compresses a buffer stream; input buffers are released as they are consumed.
+     *
+     * @param source the uncompressed stream
+     * @param factory factory for output buffers
+     * @return the gzip-framed stream
+     */
+    static Flux<DataBuffer> compress(Flux<DataBuffer> source, DataBufferFactory factory) {
+        return Flux.using(() -> new GzipCompressor(factory),
+                gzip -> Flux.concat(
+                        Mono.fromSupplier(gzip::header),
+                        source.handle((buffer, sink) -> {
+                            DataBuffer out = gzip.deflate(buffer);
+                            if (out != null) {
+                                sink.next(out);
+                            }
+                        }),
+                        Mono.fromSupplier(gzip::finish)),
+                GzipCompressor::end);
+    }
+
+    private DataBuffer header() {
+        return factory.allocateBuffer(HEADER.length).write(HEADER);
+    }
+
+    /**
+     * Compresses one input buffer and releases it.
+     *
+     * @return compressed output, or null if the deflater has not produced any yet
+     */
+    private DataBuffer deflate(DataBuffer input) {
+        DataBuffer out = null;
+        boolean completed = false;
+        try (DataBuffer.ByteBufferIterator buffers = input.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer bytes = buffers.next();
+                crc.update(bytes.duplicate());
+                deflater.setInput(bytes);
+                while (!deflater.needsInput()) {
+                    out = drain(out, Deflater.NO_FLUSH);
+                }
+            }
+            completed = true;
+        } finally {
+            DataBufferUtils.release(input);
+            if (!completed && out != null) {
+                DataBufferUtils.release(out); // partially filled output is never emitted
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Flushes the deflater and appends the gzip trailer.
+     */
+    private DataBuffer finish() {
+        deflater.finish();
+        DataBuffer out = null;
+        boolean completed = false;
+        try {
+            while (!deflater.finished()) {
+                out = drain(out, Deflater.NO_FLUSH);
+            }
+            if (out == null) {
+                out = factory.allocateBuffer(8);
+            }
+            writeIntLE(out, (int) crc.getValue());
+            writeIntLE(out, (int) deflater.getBytesRead());
+            completed = true;
+        } finally {
+            if (!completed && out != null) {
+                DataBufferUtils.release(out);
+            }
+        }
+        return out;
+    }
+
+    private DataBuffer drain(DataBuffer out, int flush) {
+        int length = deflater.deflate(chunk, 0, chunk.length, flush);
+        if (length == 0) {
+            return out;
+        }
+        if (out == null) {
+            out = factory.allocateBuffer(CHUNK_SIZE);
+        }
+        return out.write(chunk, 0, length);
+    }
+
+    private void end() {
+        deflater.end();
+    }
+
+    private static void writeIntLE(DataBuffer out, int value) {
+        out.write((byte) value);
+        out.write((byte) (value >>> 8));
+        out.write((byte) (value >>> 16));
+        out.write((byte) (value >>> 24));
+    }
+}
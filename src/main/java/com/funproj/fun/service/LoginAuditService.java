@@ -0,0 +1,277 @@
+package com.funproj.fun.service;
+
+import com.funproj.fun.model.LoginEvent;
+import com.funproj.fun.repository.LoginEventRepository;
+import com.funproj.fun.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind audit pipeline for login attempts.
+ *
+ * <p>Login events are accepted without touching the database: {@link #record(LoginEvent)}
+ * only offers the event to a bounded in-memory queue, so the login path never waits
+ * on an audit write. A background flush loop drains the queue and:
+ * <ul>
+ *   <li>Writes each batch of events as one multi-row INSERT</li>
+ *   <li>Coalesces successful logins across everything the flush drained, so each
+ *       user gets at most one {@code last_login_at} update per flush</li>
+ * </ul>
+ *
+ * <p>A flush is triggered when either {@code audit.login.batch-size} events are queued
+ * or {@code audit.login.flush-interval} has elapsed, whichever comes first. When the
+ * queue is full new events are dropped and counted rather than blocking the caller.
+ *
+ * <p><b>Metrics:</b>
+ * <ul>
+ *   <li>{@code login.audit.recorded} - events accepted into the queue</li>
+ *   <li>{@code login.audit.dropped} - events rejected because the queue was full</li>
+ *   <li>{@code login.audit.flushed} - events written to the database</li>
+ *   <li>{@code login.audit.failed} - events lost because a batch INSERT failed</li>
+ *   <li>{@code login.audit.last-login.failed} - users whose {@code last_login_at}
+ *       update failed; their events were still written</li>
+ *   <li>{@code login.audit.flush} - timer for each batch INSERT</li>
+ *   <li>{@code login.audit.queue.size} - current queue depth</li>
+ * </ul>
+ *
+ * <p>On shutdown the loop stops accepting events and drains whatever is still queued
+ * before the connection pool is closed. Stopping is atomic with {@link #record}, so
+ * every event is either written by the final flush or counted as dropped.
+ */
+@Service
+public class LoginAuditService {
+
+    private final LoginEventRepository loginEventRepository;
+    private final UserRepository userRepository;
+    private final BlockingQueue<LoginEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration drainTimeout;
+
+    private final Sinks.Many<Boolean> flushRequests = Sinks.many().multicast().directBestEffort();
+    private final Sinks.One<Boolean> shutdown = Sinks.one();
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private boolean accepting = true;
+    private Mono<Void> completion;
+
+    private final Counter recorded;
+    private final Counter dropped;
+    private final Counter flushed;
+    private final Counter failed;
+    private final Counter lastLoginFailed;
+    private final Timer flushTimer;
+
+    /**
+     * Constructs the LoginAuditService with required dependencies and tuning.
+     *
+     * @param loginEventRepository DAO for batched event inserts
+     * @param userRepository DAO used for last-login updates
+     * @param meterRegistry registry for drop/flush metrics
+     * @param capacity maximum number of events held in memory before dropping
+     * @param batchSize maximum number of events written per INSERT
+     * @param flushInterval maximum time an event waits in the queue
+     * @param drainTimeout maximum time spent draining the queue on shutdown
+     */
+    public LoginAuditService(LoginEventRepository loginEventRepository,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${audit.login.capacity:10000}") int capacity,
+                             @Value("${audit.login.batch-size:100}") int batchSize,
+                             @Value("${audit.login.flush-interval:1s}") Duration flushInterval,
+                             @Value("${audit.login.drain-timeout:10s}") Duration drainTimeout) {
+        this.loginEventRepository = loginEventRepository;
+        this.userRepository = userRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.drainTimeout = drainTimeout;
+
+        this.recorded = meterRegistry.counter("login.audit.recorded");
+        this.dropped = meterRegistry.counter("login.audit.dropped");
+        this.flushed = meterRegistry.counter("login.audit.flushed");
+        this.failed = meterRegistry.counter("login.audit.failed");
+        this.lastLoginFailed = meterRegistry.counter("login.audit.last-login.failed");
+        this.flushTimer = meterRegistry.timer("login.audit.flush");
+        meterRegistry.gauge("login.audit.queue.size", queue, BlockingQueue::size);
+    }
+
+    /**
+     * Starts the background flush loop.
+     *
+     * <p>Interval ticks and size-triggered flush requests are merged; ticks that arrive
+     * while a flush is still running are dropped since the running flush drains the
+     * whole queue anyway. Once shutdown is signalled a final flush drains the remainder.
+     */
+    @PostConstruct
+    public void start() {
+        completion = Flux.merge(Flux.interval(flushInterval).map(tick -> Boolean.TRUE), flushRequests.asFlux())
+                .onBackpressureDrop()
+                .takeUntilOther(shutdown.asMono())
+                .concatMap(trigger -> flush(), 1)
+                .then(Mono.defer(this::flush))
+                .cache();
+        completion.subscribe();
+    }
+
+    /**
+     * Stops accepting events and blocks until queued events are written or the
+     * drain timeout elapses.
+     *
+     * <p>{@code accepting} is cleared under the write lock, so no {@link #record} call
+     * can still be between its check and its offer once the final flush starts.
+     */
+    @PreDestroy
+    public void drain() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        shutdown.tryEmitValue(Boolean.TRUE);
+        try {
+            completion.block(drainTimeout);
+        } catch (IllegalStateException e) {
+            System.err.println("Login audit drain timed out, " + queue.size() + " events not written");
+        }
+    }
+
+    /**
+     * Queues a login event for asynchronous persistence.
+     *
+     * <p>Never waits on the database: if the queue is full or the service is shutting
+     * down the event is dropped and counted.
+     *
+     * @param event the event to record
+     */
+    public void record(LoginEvent event) {
+        boolean offered;
+        acceptLock.readLock().lock();
+        try {
+            offered = accepting && queue.offer(event);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!offered) {
+            dropped.increment();
+            return;
+        }
+        recorded.increment();
+        if (queue.size() >= batchSize) {
+            flushRequests.tryEmitNext(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Drains the queue in batches until it is empty, then applies the last-login
+     * updates collected from every batch written during this flush.
+     *
+     * @return Mono completing once every batch taken from the queue has been handled
+     */
+    private Mono<Void> flush() {
+        return Mono.defer(() -> {
+            Map<String, LocalDateTime> lastLogins = new HashMap<>();
+            return writeBatches(lastLogins).then(Mono.defer(() -> updateLastLogins(lastLogins)));
+        });
+    }
+
+    /**
+     * Takes batches from the queue and inserts them until the queue is empty.
+     *
+     * @param lastLogins collects the latest successful login per user of every batch
+     *                   that was inserted
+     * @return Mono completing when the queue has been drained
+     */
+    private Mono<Void> writeBatches(Map<String, LocalDateTime> lastLogins) {
+        return Mono.defer(() -> {
+            List<LoginEvent> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return Mono.empty();
+            }
+            return insert(batch, lastLogins).then(writeBatches(lastLogins));
+        });
+    }
+
+    /**
+     * Writes one batch of events as a single INSERT.
+     *
+     * <p>A failed INSERT loses the batch: it is logged and counted, and its logins do
+     * not update {@code last_login_at}. It never terminates the flush loop.
+     *
+     * @param batch the events to write
+     * @param lastLogins collects the batch's successful logins once it is written
+     * @return Mono completing when the batch has been written or discarded
+     */
+    private Mono<Void> insert(List<LoginEvent> batch, Map<String, LocalDateTime> lastLogins) {
+        long start = System.nanoTime();
+        return loginEventRepository.insertAll(batch)
+                .doOnSuccess(rows -> {
+                    flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    flushed.increment(batch.size());
+                    coalesceLastLogins(batch, lastLogins);
+                })
+                .then()
+                .onErrorResume(error -> {
+                    failed.increment(batch.size());
+                    System.err.println("Login audit flush failed for " + batch.size() + " events: " + error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Issues one {@code last_login_at} update per user.
+     *
+     * <p>The events behind these updates are already written, so a failed update is
+     * logged and counted separately and the remaining users are still updated.
+     *
+     * @param lastLogins latest successful login per user
+     * @return Mono completing when every update has been attempted
+     */
+    private Mono<Void> updateLastLogins(Map<String, LocalDateTime> lastLogins) {
+        return Flux.fromIterable(lastLogins.entrySet())
+                .concatMap(entry -> userRepository.updateLastLoginAt(entry.getKey(), entry.getValue())
+                        .onErrorResume(error -> {
+                            lastLoginFailed.increment();
+                            System.err.println("Login audit last-login update failed for " + entry.getKey()
+                                    + ": " + error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /**
+     * Merges a batch into the latest successful login per user.
+     *
+     * @param batch the events to coalesce
+     * @param lastLogins map of username to latest successful login time, updated in place
+     */
+    private static void coalesceLastLogins(List<LoginEvent> batch, Map<String, LocalDateTime> lastLogins) {
+        for (LoginEvent event : batch) {
+            if (event.isSuccess()) {
+                lastLogins.merge(event.getUsername(), event.getOccurredAt(),
+                        (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.funproj.fun.service;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Hand-written CSV/NDJSON encoder that writes export rows straight into pooled buffers.
+ *
+ * <p>Rows are appended to the current buffer as they are read; once it holds at least
+ * {@code flushThreshold} bytes {@link #append(Readable)} reports it full and the caller
+ * {@linkplain #take() takes} it, so the response is written in large chunks without
+ * materializing entities or JSON trees.
+ *
+ * <p>Expects rows with the columns {@code id, username, email, role, created_at,
+ * last_login_at} in that order. One instance per export stream.
+ *
+ * <p>Rows are appended and taken on the thread the driver emits on, while
+ * {@link #release()} runs on whichever thread terminates or cancels the stream. All
+ * access to the current buffer is therefore synchronized, and once released the
+ * encoder stays released: later appends are ignored and nothing more is handed out.
+ */
+class UserRowEncoder {
+
+    private static final String CSV_HEADER = "id,username,email,role,created_at,last_login_at\n";
+    private static final byte[] JSON_ID = bytes("{\"id\":");
+    private static final byte[] JSON_USERNAME = bytes(",\"username\":");
+    private static final byte[] JSON_EMAIL = bytes(",\"email\":");
+    private static final byte[] JSON_ROLE = bytes(",\"role\":");
+    private static final byte[] JSON_CREATED_AT = bytes(",\"created_at\":");
+    private static final byte[] JSON_LAST_LOGIN_AT = bytes(",\"last_login_at\":");
+    private static final byte[] JSON_NULL = bytes("null");
+    private static final byte[] JSON_END = bytes("}\n");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final UserExportService.Format format;
+    private final DataBufferFactory factory;
+    private final int flushThreshold;
+    private DataBuffer current;
+    private boolean released;
+
+    /**
+     * @param format output format
+     * @param factory factory for (pooled) response buffers
+     * @param flushThreshold number of bytes after which a buffer is handed out
+     * @param header whether to start with the CSV header line (ignored for NDJSON)
+     */
+    UserRowEncoder(UserExportService.Format format, DataBufferFactory factory, int flushThreshold, boolean header) {
+        this.format = format;
+        this.factory = factory;
+        this.flushThreshold = flushThreshold;
+        this.current = newBuffer();
+        if (header && format == UserExportService.Format.CSV) {
+            current.write(CSV_HEADER, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Encodes one row into the current buffer.
+     *
+     * @param row the row to encode
+     * @return true once the current buffer has reached the flush threshold; always
+     *         false after {@link #release()}
+     */
+    synchronized boolean append(Readable row) {
+        if (released) {
+            return false;
+        }
+        String id = row.get(0, String.class);
+        String username = row.get(1, String.class);
+        String email = row.get(2, String.class);
+        String role = row.get(3, String.class);
+        LocalDateTime createdAt = row.get(4, LocalDateTime.class);
+        LocalDateTime lastLoginAt = row.get(5, LocalDateTime.class);
+
+        if (format == UserExportService.Format.CSV) {
+            writeCsv(id).write((byte) ',');
+            writeCsv(username).write((byte) ',');
+            writeCsv(email).write((byte) ',');
+            writeCsv(role).write((byte) ',');
+            writeCsv(createdAt).write((byte) ',');
+            writeCsv(lastLoginAt).write((byte) '\n');
+        } else {
+            current.write(JSON_ID);
+            writeJson(id);
+            current.write(JSON_USERNAME);
+            writeJson(username);
+            current.write(JSON_EMAIL);
+            writeJson(email);
+            current.write(JSON_ROLE);
+            writeJson(role);
+            current.write(JSON_CREATED_AT);
+            writeJson(createdAt);
+            current.write(JSON_LAST_LOGIN_AT);
+            writeJson(lastLoginAt);
+            current.write(JSON_END);
+        }
+
+        return current.readableByteCount() >= flushThreshold;
+    }
+
+    /**
+     * Hands out the current buffer and starts a new one.
+     *
+     * @return the current buffer, or null if nothing has been written to it yet or the
+     *         encoder was released
+     */
+    synchronized DataBuffer take() {
+        if (released || current == null || current.readableByteCount() == 0) {
+            return null;
+        }
+        DataBuffer full = current;
+        current = newBuffer();
+        return full;
+    }
+
+    /**
+     * Hands out whatever is left in the current buffer.
+     *
+     * @return the last buffer, or null if it is empty or the encoder was released
+     */
+    synchronized DataBuffer finish() {
+        if (released) {
+            return null;
+        }
+        DataBuffer last = current;
+        current = null;
+        if (last != null && last.readableByteCount() == 0) {
+            DataBufferUtils.release(last);
+            return null;
+        }
+        return last;
+    }
+
+    /**
+     * Releases the current buffer if it was never handed out (e.g. on cancellation).
+     *
+     * <p>Safe to call from any thread, concurrently with {@link #append(Readable)} or
+     * {@link #take()}; buffers already handed out belong to the caller.
+     */
+    synchronized void release() {
+        released = true;
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+    }
+
+    private DataBuffer newBuffer() {
+        return factory.allocateBuffer(flushThreshold + 512);
+    }
+
+    private DataBuffer writeCsv(LocalDateTime value) {
+        return value == null ? current : current.write(value.toString(), StandardCharsets.US_ASCII);
+    }
+
+    /** Writes a CSV field, quoting only when it contains a delimiter, quote or line break. */
+    private DataBuffer writeCsv(String value) {
+        if (value == null) {
+            return current;
+        }
+        int special = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                special = i;
+                break;
+            }
+        }
+        if (special < 0) {
+            return current.write(value, StandardCharsets.UTF_8);
+        }
+        current.write((byte) '"');
+        int start = 0;
+        for (int i = special; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                current.write(value.subSequence(start, i + 1), StandardCharsets.UTF_8);
+                current.write((byte) '"');
+                start = i + 1;
+            }
+        }
+        current.write(value.subSequence(start, value.length()), StandardCharsets.UTF_8);
+        return current.write((byte) '"');
+    }
+
+    private void writeJson(LocalDateTime value) {
+        if (value == null) {
+            current.write(JSON_NULL);
+            return;
+        }
+        current.write((byte) '"');
+        current.write(value.toString(), StandardCharsets.US_ASCII);
+        current.write((byte) '"');
+    }
+
+    /** Writes a JSON string literal, escaping quotes, backslashes and control characters. */
+    private void writeJson(String value) {
+        if (value == null) {
+            current.write(JSON_NULL);
+            return;
+        }
+        current.write((byte) '"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            if (i > start) {
+                current.write(value.subSequence(start, i), StandardCharsets.UTF_8);
+            }
+            current.write((byte) '\\');
+            switch (c) {
+                case '"', '\\' -> current.write((byte) c);
+                case '\n' -> current.write((byte) 'n');
+                case '\r' -> current.write((byte) 'r');
+                case '\t' -> current.write((byte) 't');
+                default -> current.write((byte) 'u').write((byte) '0').write((byte) '0')
+                        .write((byte) HEX[c >> 4]).write((byte) HEX[c & 0xf]);
+            }
+            start = i + 1;
+        }
+        if (start == 0) {
+            current.write(value, StandardCharsets.UTF_8);
+        } else if (start < value.length()) {
+            current.write(value.subSequence(start, value.length()), StandardCharsets.UTF_8);
+        }
+        current.write((byte) '"');
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
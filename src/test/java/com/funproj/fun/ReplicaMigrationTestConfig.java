@@ -0,0 +1,35 @@
+package com.funproj.fun;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Migrates the embedded test replica with the same Liquibase changelog as the primary.
+ *
+ * <p>Spring Boot only migrates {@code spring.liquibase.url}; in production the replica
+ * gets its schema through replication. Runs as a plain {@link InitializingBean} rather
+ * than a {@link SpringLiquibase} bean, which would switch off Boot's own migration of
+ * the primary.
+ */
+@Configuration
+@Profile("test")
+public class ReplicaMigrationTestConfig {
+
+    @Bean
+    public InitializingBean replicaMigration(@Value("${test.replica.liquibase-url}") String url,
+                                             @Value("${spring.liquibase.change-log}") String changeLog) {
+        return () -> {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(new DriverManagerDataSource(url, "sa", ""));
+            liquibase.setChangeLog(changeLog);
+            liquibase.setResourceLoader(new DefaultResourceLoader());
+            liquibase.afterPropertiesSet();
+        };
+    }
+}
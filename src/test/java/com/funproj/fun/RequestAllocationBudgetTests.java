@@ -0,0 +1,233 @@
+package com.funproj.fun;
+
+import com.funproj.fun.repository.DatabaseRoute;
+import com.funproj.fun.repository.RoutingConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards per-request allocation of the login and JWT filter paths.
+ *
+ * <p>Each path is driven through {@link WebTestClient} against the embedded test
+ * databases, warmed up, then measured. Only threads that execute request work are
+ * counted: the test thread, the {@code parallel-*} threads the in-process connector
+ * runs the handler on, and the {@code boundedElastic-*} threads the password check is
+ * offloaded to. Background work (the login audit flush, replica health checks) is kept
+ * off those threads for this test by disabling its timers, and a measured thread that
+ * exits mid-run fails the measurement instead of silently losing its bytes.
+ *
+ * <p>Allocation budgets are {@code baseline + budget.margin.percent}, with baselines
+ * from {@code allocation-budgets.properties}. To (re)record them on the reference machine:
+ * <pre>
+ * ./gradlew test --tests RequestAllocationBudgetTests -Dbudget.record=true
+ * </pre>
+ * which writes {@code build/allocation-baseline.properties} to copy over. Latency is
+ * gated against a loose {@code budget.<path>.millis} ceiling. Any key can be overridden
+ * with {@code -Dbudget.<key>=...}; a missing key fails the test.
+ */
+@SpringBootTest(properties = {
+        "audit.login.flush-interval=1h", // no timer-driven audit flush during measurement
+        "audit.login.batch-size=1000000"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class RequestAllocationBudgetTests {
+
+    private static final String USERNAME = "budget-user";
+    private static final String PASSWORD = "budget-password";
+    private static final String LOGIN_BODY = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}";
+    private static final String[] REQUEST_THREADS = {"parallel-", "boundedElastic-"};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Properties BUDGETS = new Properties();
+    private static final boolean RECORD = Boolean.getBoolean("budget.record");
+    private static final Properties RECORDED = new Properties();
+
+    @Autowired
+    WebTestClient webTestClient;
+    @Autowired
+    DatabaseClient databaseClient;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    RoutingConnectionFactory connectionFactory;
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "thread allocation counters not supported");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        try (InputStream in = RequestAllocationBudgetTests.class.getResourceAsStream("/allocation-budgets.properties")) {
+            BUDGETS.load(in);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // this class has its own context, whose replica is unhealthy until first checked
+        UserFixtures.awaitReplicaHealthy(connectionFactory);
+        String hash = passwordEncoder.encode(PASSWORD);
+        UserFixtures.insertUser(databaseClient, "budget-id", USERNAME, hash).block();
+        DatabaseRoute.onReplica(UserFixtures.insertUser(databaseClient, "budget-id", USERNAME, hash)).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserFixtures.deleteUsers(databaseClient, "budget-id").block();
+        DatabaseRoute.onReplica(UserFixtures.deleteUsers(databaseClient, "budget-id")).block();
+    }
+
+    @Test
+    void loginStaysWithinBudget() throws IOException {
+        assertWithinBudget("login", 50, 50, this::login);
+    }
+
+    @Test
+    void jwtFilterStaysWithinBudget() throws IOException {
+        String token = login();
+        assertWithinBudget("filter", 500, 1000, () -> webTestClient.get().uri("/home")
+                .cookie("jwt", token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+    }
+
+    private String login() {
+        ResponseCookie cookie = webTestClient.post().uri("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LOGIN_BODY)
+                .exchange()
+                .expectStatus().isSeeOther()
+                .returnResult(Void.class)
+                .getResponseCookies()
+                .getFirst("jwt");
+        assertNotNull(cookie, "login did not set the jwt cookie");
+        return cookie.getValue();
+    }
+
+    private void assertWithinBudget(String path, int warmup, int requests, Runnable request) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            request.run();
+        }
+
+        Map<Long, Long> before = requestThreadAllocations();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            request.run();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long bytesPerRequest = allocatedSince(before) / requests;
+        double millisPerRequest = elapsedNanos / 1_000_000.0 / requests;
+        System.out.printf("%s: %d bytes/request, %.2f ms/request%n", path, bytesPerRequest, millisPerRequest);
+
+        String baselineKey = "budget." + path + ".baseline.bytes";
+        if (RECORD) {
+            record(baselineKey, bytesPerRequest);
+            return;
+        }
+        long baseline = budget(baselineKey);
+        long marginPercent = budget("budget.margin.percent");
+        long bytesBudget = baseline * (100 + marginPercent) / 100;
+        assertTrue(bytesPerRequest <= bytesBudget, path + " allocated " + bytesPerRequest + " bytes/request, budget is "
+                + bytesBudget + " (baseline " + baseline + " + " + marginPercent + "%)");
+
+        long millisBudget = budget("budget." + path + ".millis");
+        assertTrue(millisPerRequest <= millisBudget, String.format("%s took %.2f ms/request, budget is %d ms",
+                path, millisPerRequest, millisBudget));
+    }
+
+    /**
+     * Reads a budget value, preferring a {@code -Dbudget.*} override over
+     * {@code allocation-budgets.properties}. A missing value fails the test.
+     */
+    private static long budget(String key) {
+        String value = System.getProperty(key, BUDGETS.getProperty(key, "")).trim();
+        if (value.isEmpty()) {
+            fail("no " + key + " in allocation-budgets.properties or -D" + key);
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Snapshots the allocation counter of every current request-handling thread.
+     */
+    private static Map<Long, Long> requestThreadAllocations() {
+        Map<Long, Long> allocations = new HashMap<>();
+        Thread current = Thread.currentThread();
+        allocations.put(current.getId(), THREADS.getThreadAllocatedBytes(current.getId()));
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (isRequestThread(thread)) {
+                allocations.put(thread.getId(), THREADS.getThreadAllocatedBytes(thread.getId()));
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * Sums what request-handling threads allocated since the snapshot; threads started
+     * in between count from zero.
+     *
+     * @throws IllegalStateException if a snapshotted thread exited, since its bytes are lost
+     */
+    private static long allocatedSince(Map<Long, Long> before) {
+        Map<Long, Long> after = requestThreadAllocations();
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : after.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalStateException("request thread " + entry.getKey() + " exited during measurement; rerun the test");
+            }
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        for (Long id : before.keySet()) {
+            if (!after.containsKey(id)) {
+                throw new IllegalStateException("request thread " + id + " exited during measurement; rerun the test");
+            }
+        }
+        return total;
+    }
+
+    private static boolean isRequestThread(Thread thread) {
+        for (String prefix : REQUEST_THREADS) {
+            if (thread.getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static synchronized void record(String key, long bytesPerRequest) throws IOException {
+        RECORDED.setProperty(key, Long.toString(bytesPerRequest));
+        Path file = Path.of("build", "allocation-baseline.properties");
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            RECORDED.store(out, "Copy into src/test/resources/allocation-budgets.properties");
+        }
+        System.out.println("Recorded " + key + "=" + bytesPerRequest + " to " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,70 @@
+package com.funproj.fun;
+
+import com.funproj.fun.repository.RoutingConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared user rows for tests that hit the primary and/or the replica.
+ *
+ * <p>Wrap the returned {@link Mono} in {@code DatabaseRoute.onReplica(...)} to target
+ * the replica; both databases are migrated by Liquibase in the test profile.
+ */
+public final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    /**
+     * Inserts a user with email {@code <username>@example.com} and role USER.
+     *
+     * @param databaseClient client to insert with
+     * @param id user id
+     * @param username username
+     * @param passwordHash stored password hash
+     * @return Mono completing once the row is inserted
+     */
+    public static Mono<Void> insertUser(DatabaseClient databaseClient, String id, String username, String passwordHash) {
+        return databaseClient.sql("INSERT INTO users (id, username, password, email, role) "
+                        + "VALUES (:id, :username, :password, :email, 'USER')")
+                .bind("id", id)
+                .bind("username", username)
+                .bind("password", passwordHash)
+                .bind("email", username + "@example.com")
+                .then();
+    }
+
+    /**
+     * Deletes users by id prefix.
+     *
+     * @param databaseClient client to delete with
+     * @param idPrefix prefix shared by the ids a test inserted
+     * @return Mono completing once the rows are deleted
+     */
+    public static Mono<Void> deleteUsers(DatabaseClient databaseClient, String idPrefix) {
+        return databaseClient.sql("DELETE FROM users WHERE id LIKE :prefix")
+                .bind("prefix", idPrefix + "%")
+                .then();
+    }
+
+    /**
+     * Waits for the replica's first health check, after which replica-routed queries
+     * actually reach the replica.
+     *
+     * @param connectionFactory the routing connection factory
+     */
+    public static void awaitReplicaHealthy(RoutingConnectionFactory connectionFactory) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!connectionFactory.isReplicaHealthy()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("replica health check did not pass within 5s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.funproj.fun.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funproj.fun.UserFixtures;
+import com.funproj.fun.repository.DatabaseRoute;
+import com.funproj.fun.repository.RoutingConnectionFactory;
+import com.funproj.fun.security.JwtUtil;
+import com.funproj.fun.service.UserExportService;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@code GET /users/export} end to end against the embedded test databases.
+ *
+ * <p>Covers access control (service credential only), CSV quoting, JSON escaping,
+ * resuming with {@code after}, the gzip framing, and buffer release when the client
+ * cancels mid-stream.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class UserExportControllerTests {
+
+    private static final String CLIENT = "export-job";
+    private static final String CLIENT_PASSWORD = "export-secret";
+    private static final String CREATED_AT = "2024-01-02T03:04:05";
+    private static final String LAST_LOGIN_AT = "2024-01-03T04:05:06";
+
+    private static final String CSV_HEADER = "id,username,email,role,created_at,last_login_at\n";
+    private static final String CSV_ROW_1 = "exp-1,plain,plain@example.com,USER," + CREATED_AT + "," + LAST_LOGIN_AT + "\n";
+    private static final String CSV_ROWS_2_3 =
+            "exp-2,\"comma,\"\"quoted\"\"\",\"comma,\"\"quoted\"\"@example.com\",USER," + CREATED_AT + ",\n"
+            + "exp-3,\"multi\nline\ttab\\\",\"multi\nline\ttab\\@example.com\",USER," + CREATED_AT + ",\n";
+
+    @Autowired
+    WebTestClient webTestClient;
+    @Autowired
+    DatabaseClient databaseClient;
+    @Autowired
+    RoutingConnectionFactory connectionFactory;
+    @Autowired
+    UserExportService userExportService;
+    @Autowired
+    JwtUtil jwtUtil;
+
+    @DynamicPropertySource
+    static void exportClient(DynamicPropertyRegistry registry) {
+        registry.add("export.client.username", () -> CLIENT);
+        registry.add("export.client.password-hash", () -> new BCryptPasswordEncoder(4).encode(CLIENT_PASSWORD));
+    }
+
+    @BeforeEach
+    void setUp() {
+        UserFixtures.awaitReplicaHealthy(connectionFactory);
+        // exports read from the replica
+        DatabaseRoute.onReplica(UserFixtures.insertUser(databaseClient, "exp-1", "plain", "x")
+                .then(UserFixtures.insertUser(databaseClient, "exp-2", "comma,\"quoted\"", "x"))
+                .then(UserFixtures.insertUser(databaseClient, "exp-3", "multi\nline\ttab\\", "x"))
+                .then(databaseClient.sql("UPDATE users SET created_at = TIMESTAMP '2024-01-02 03:04:05' WHERE id LIKE 'exp-%'").then())
+                .then(databaseClient.sql("UPDATE users SET last_login_at = TIMESTAMP '2024-01-03 04:05:06' WHERE id = 'exp-1'").then()))
+                .block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseRoute.onReplica(UserFixtures.deleteUsers(databaseClient, "exp-")).block();
+    }
+
+    @Test
+    void rejectsAnonymousRequests() {
+        webTestClient.get().uri("/users/export")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void rejectsApplicationUsers() {
+        String token = jwtUtil.generateToken("plain").block();
+        webTestClient.get().uri("/users/export")
+                .cookie("jwt", token)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void rejectsWrongClientPassword() {
+        webTestClient.get().uri("/users/export")
+                .headers(headers -> headers.setBasicAuth(CLIENT, "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        export("/users/export?format=xml")
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void exportsCsvWithQuoting() {
+        byte[] body = exportBody("/users/export");
+        assertEquals(CSV_HEADER + CSV_ROW_1 + CSV_ROWS_2_3, new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void resumesAfterIdWithoutCsvHeader() {
+        byte[] body = exportBody("/users/export?after=exp-1");
+        assertEquals(CSV_ROWS_2_3, new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportsNdjsonWithEscaping() throws IOException {
+        byte[] body = exportBody("/users/export?format=ndjson");
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals("exp-1", first.get("id").asText());
+        assertEquals("plain", first.get("username").asText());
+        assertEquals(CREATED_AT, first.get("created_at").asText());
+        assertEquals(LAST_LOGIN_AT, first.get("last_login_at").asText());
+
+        JsonNode second = mapper.readTree(lines[1]);
+        assertEquals("comma,\"quoted\"", second.get("username").asText());
+        assertTrue(second.get("last_login_at").isNull());
+        assertEquals("multi\nline\ttab\\", mapper.readTree(lines[2]).get("username").asText());
+
+        byte[] resumed = exportBody("/users/export?format=ndjson&after=exp-2");
+        assertEquals("exp-3", mapper.readTree(new String(resumed, StandardCharsets.UTF_8)).get("id").asText());
+    }
+
+    @Test
+    void gzipRoundTripsWithValidTrailer() throws IOException {
+        byte[] plain = exportBody("/users/export");
+        byte[] compressed = export("/users/export?gzip=true")
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .expectBody().returnResult().getResponseBody();
+
+        assertEquals((byte) 0x1f, compressed[0]);
+        assertEquals((byte) 0x8b, compressed[1]);
+        CRC32 crc = new CRC32();
+        crc.update(plain);
+        assertEquals((int) crc.getValue(), readIntLE(compressed, compressed.length - 8), "CRC32 trailer");
+        assertEquals(plain.length, readIntLE(compressed, compressed.length - 4), "ISIZE trailer");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(plain, in.readAllBytes()); // also verifies CRC and ISIZE
+        }
+    }
+
+    @ParameterizedTest(name = "gzip={0}, take={1}")
+    @CsvSource({"false, 1", "false, 3", "true, 1", "true, 2", "false, 1000", "true, 1000"})
+    void releasesBuffersWhenCancelled(boolean gzip, int take) throws InterruptedException {
+        DatabaseRoute.onReplica(databaseClient.sql("INSERT INTO users (id, username, email, role) "
+                + "SELECT 'exp-bulk-' || LPAD(X, 5, '0'), 'bulk-' || X, 'bulk-' || X || '@example.com', 'USER' "
+                + "FROM SYSTEM_RANGE(1, 3000)").then()).block();
+        TrackingBufferFactory factory = new TrackingBufferFactory();
+
+        userExportService.export(UserExportService.Format.CSV, null, gzip, factory)
+                .take(take)
+                .doOnNext(DataBufferUtils::release)
+                .blockLast();
+
+        assertTrue(factory.allocated.size() > 1, "export should span several buffers");
+        for (int i = 0; i < 100 && factory.allocated.stream().anyMatch(NettyDataBuffer::isAllocated); i++) {
+            Thread.sleep(10); // cancellation cleanup may finish on another thread
+        }
+        for (NettyDataBuffer buffer : factory.allocated) {
+            assertTrue(!buffer.isAllocated(), "buffer leaked: " + buffer);
+        }
+    }
+
+    private WebTestClient.ResponseSpec export(String uri) {
+        return webTestClient.get().uri(uri)
+                .headers(headers -> headers.setBasicAuth(CLIENT, CLIENT_PASSWORD))
+                .exchange();
+    }
+
+    private byte[] exportBody(String uri) {
+        return export(uri)
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+    }
+
+    private static int readIntLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * Pooled Netty buffers, recorded so the test can check each one was released.
+     */
+    private static final class TrackingBufferFactory extends NettyDataBufferFactory {
+        private final List<NettyDataBuffer> allocated = new CopyOnWriteArrayList<>();
+
+        TrackingBufferFactory() {
+            super(PooledByteBufAllocator.DEFAULT);
+        }
+
+        @Override
+        public NettyDataBuffer allocateBuffer(int initialCapacity) {
+            NettyDataBuffer buffer = super.allocateBuffer(initialCapacity);
+            allocated.add(buffer);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.funproj.fun.repository;
+
+import com.funproj.fun.UserFixtures;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies primary/replica routing against two embedded H2 databases.
+ *
+ * <p>Both databases are migrated by Liquibase in the test profile; each gets a user
+ * the other does not have.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DatabaseRoutingTests {
+
+    @Autowired
+    RoutingConnectionFactory connectionFactory;
+    @Autowired
+    DatabaseClient databaseClient;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ReactiveUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        UserFixtures.awaitReplicaHealthy(connectionFactory);
+        UserFixtures.insertUser(databaseClient, "routing-primary", "primary-only", "x").block();
+        DatabaseRoute.onReplica(UserFixtures.insertUser(databaseClient, "routing-replica", "replica-only", "x")).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.setReplicaHealthy(true);
+        UserFixtures.deleteUsers(databaseClient, "routing-").block();
+        DatabaseRoute.onReplica(UserFixtures.deleteUsers(databaseClient, "routing-")).block();
+    }
+
+    @Test
+    void unroutedQueriesUsePrimary() {
+        assertEquals("primary-only", userRepository.findByUsername("primary-only").map(u -> u.getUsername()).block());
+        assertNull(userRepository.findByUsername("replica-only").block());
+    }
+
+    @Test
+    void userDetailsLookupsUseReplica() {
+        assertEquals("replica-only", username(userDetailsService.findByUsername("replica-only")));
+    }
+
+    @Test
+    void userDetailsFallBackToPrimaryForMissingUsers() {
+        assertEquals("primary-only", username(userDetailsService.findByUsername("primary-only")));
+    }
+
+    @Test
+    void userDetailsFallBackToPrimaryWhenReplicaFails() {
+        DatabaseRoute.onReplica(databaseClient.sql("ALTER TABLE users RENAME TO users_away").then()).block();
+        try {
+            assertEquals("primary-only", username(userDetailsService.findByUsername("primary-only")));
+        } finally {
+            DatabaseRoute.onReplica(databaseClient.sql("ALTER TABLE users_away RENAME TO users").then()).block();
+        }
+    }
+
+    @Test
+    void replicaStartsUnhealthyUntilChecked() {
+        RoutingConnectionFactory fresh = new RoutingConnectionFactory(
+                ConnectionFactories.get("r2dbc:h2:mem:///fresh-primary"), ConnectionFactories.get("r2dbc:h2:mem:///fresh-replica"));
+        try {
+            assertFalse(fresh.isReplicaHealthy());
+        } finally {
+            fresh.destroy();
+        }
+    }
+
+    @Test
+    void unhealthyReplicaRoutesToPrimary() {
+        connectionFactory.setReplicaHealthy(false);
+        assertNull(DatabaseRoute.onReplica(userRepository.findByUsername("replica-only")).block());
+        assertEquals("primary-only",
+                DatabaseRoute.onReplica(userRepository.findByUsername("primary-only")).map(u -> u.getUsername()).block());
+    }
+
+    private static String username(Mono<UserDetails> details) {
+        return details.map(UserDetails::getUsername).block();
+    }
+}
@@ -0,0 +1,234 @@
+package com.funproj.fun.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link Hs256JwtCodec} against jjwt, which it replaces on the hot path.
+ *
+ * <p>Uses the same key as {@link JwtUtil}, so tokens issued by either side must be
+ * accepted by the other, and anything jjwt would reject must be rejected here too.
+ */
+class Hs256JwtCodecTests {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor("2tvBIHDTGrffC9STSeN2xRP2SOo6n7qJZ2P5ufP5n+k=".getBytes());
+    private static final long IAT = 1_700_000_000L;
+    private static final long EXP = IAT + 3600;
+    private static final long NOW = (IAT + 60) * 1000;
+
+    private final Hs256JwtCodec codec = new Hs256JwtCodec(KEY);
+    private final JwtUtil jwtUtil = new JwtUtil("unused", 0);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"alice", "héllo wörld", "😀 emoji", "quote\"back\\slash", "tab\tnew\nline", "\u0001ctl",
+            "slash/ok"})
+    void codecTokensAreReadByJjwt(String subject) {
+        String token = codec.encode(subject, IAT, EXP);
+
+        Claims claims = jjwtParse(token);
+        assertEquals(subject, claims.getSubject());
+        assertEquals(new Date(IAT * 1000), claims.getIssuedAt());
+        assertEquals(new Date(EXP * 1000), claims.getExpiration());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"alice", "héllo wörld", "😀 emoji", "quote\"back\\slash", "tab\tnew\nline", "\u0001ctl",
+            "slash/ok"})
+    void jjwtTokensAreVerifiedByCodec(String subject) {
+        String token = Jwts.builder()
+                .subject(subject)
+                .issuedAt(new Date(IAT * 1000))
+                .expiration(new Date(EXP * 1000))
+                .signWith(KEY, Jwts.SIG.HS256)
+                .compact();
+
+        assertTrue(codec.supports(token));
+        assertEquals(subject, codec.verify(token, NOW));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"alice", "héllo wörld", "😀 emoji", "quote\"back\\slash", "tab\tnew\nline", "\u0001ctl",
+            "lone\uD800surrogate"})
+    void codecRoundTrips(String subject) {
+        assertEquals(subject, codec.verify(codec.encode(subject, IAT, EXP), NOW));
+    }
+
+    @Test
+    void decodesEscapedSubjects() {
+        String token = signed("{\"sub\":\"a\\u00e9\\ud83d\\ude00\\/\\\"\",\"exp\":" + EXP + "}");
+        assertEquals("aé😀/\"", codec.verify(token, NOW));
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = codec.encode("alice", IAT, EXP);
+        int middle = token.lastIndexOf('.') + 10;
+        String tampered = token.substring(0, middle) + flip(token.charAt(middle)) + token.substring(middle + 1);
+
+        assertNull(codec.verify(tampered, NOW));
+    }
+
+    @Test
+    void rejectsNonCanonicalSignatureEncoding() {
+        // 32 signature bytes leave 2 unused bits in the last character; setting them
+        // decodes to the same bytes, so it must be caught by the canonical check
+        String token = codec.encode("alice", IAT, EXP);
+        char last = token.charAt(token.length() - 1);
+        String altered = token.substring(0, token.length() - 1) + base64Char(base64Value(last) | 1);
+
+        assertNotEquals(token, altered);
+        assertNull(codec.verify(altered, NOW));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = codec.encode("alice", IAT, EXP);
+        String[] parts = token.split("\\.");
+        String forged = base64("{\"sub\":\"admin\",\"iat\":" + IAT + ",\"exp\":" + EXP + "}");
+
+        assertNull(codec.verify(parts[0] + "." + forged + "." + parts[2], NOW));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        SecretKey other = Keys.hmacShaKeyFor("another-secret-key-of-at-least-32-bytes!".getBytes());
+        String token = Jwts.builder().subject("alice").expiration(new Date(EXP * 1000)).signWith(other, Jwts.SIG.HS256).compact();
+
+        assertTrue(codec.supports(token));
+        assertNull(codec.verify(token, NOW));
+    }
+
+    @Test
+    void expiryIsInclusiveOfTheExpSecond() {
+        String token = codec.encode("alice", IAT, EXP);
+
+        assertEquals("alice", codec.verify(token, EXP * 1000));
+        assertNull(codec.verify(token, EXP * 1000 + 1));
+    }
+
+    @Test
+    void notBeforeIsEnforced() {
+        long nbf = IAT + 120;
+        String token = Jwts.builder()
+                .subject("alice")
+                .notBefore(new Date(nbf * 1000))
+                .expiration(new Date(EXP * 1000))
+                .signWith(KEY, Jwts.SIG.HS256)
+                .compact();
+
+        assertNull(codec.verify(token, nbf * 1000 - 1));
+        assertEquals("alice", codec.verify(token, nbf * 1000));
+    }
+
+    @Test
+    void otherHeadersFallBackToJjwt() {
+        String token = Jwts.builder()
+                .header().type("JWT").and()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY, Jwts.SIG.HS256)
+                .compact();
+
+        assertFalse(codec.supports(token));
+        assertEquals("alice", jwtUtil.getVerifiedSubject(token));
+    }
+
+    @Test
+    void unsecuredTokensAreRejected() {
+        String token = base64("{\"alg\":\"none\"}") + "." + base64("{\"sub\":\"alice\"}") + ".";
+
+        assertFalse(codec.supports(token));
+        assertNull(jwtUtil.getVerifiedSubject(token));
+    }
+
+    @Test
+    void jwtUtilTokensAreVerifiedByCodec() {
+        String token = jwtUtil.generateToken("alice").block();
+
+        assertTrue(codec.supports(token));
+        assertEquals("alice", jwtUtil.getVerifiedSubject(token));
+        assertEquals("alice", jjwtParse(token).getSubject());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc", "a.b.c", "eyJhbGciOiJIUzI1NiJ9", "eyJhbGciOiJIUzI1NiJ9.", "eyJhbGciOiJIUzI1NiJ9..",
+            "eyJhbGciOiJIUzI1NiJ9.e30", "eyJhbGciOiJIUzI1NiJ9.e30.", "eyJhbGciOiJIUzI1NiJ9.e30.a.b",
+            "eyJhbGciOiJIUzI1NiJ9.e3+.abc", "eyJhbGciOiJIUzI1NiJ9.e30.ab=", "eyJhbGciOiJIUzI1NiJ9.e30.é",
+            "eyJhbGciOiJIUzI1NiJ9.e30.a"})
+    void malformedTokensAreRejected(String token) {
+        assertNull(codec.supports(token) ? codec.verify(token, NOW) : null);
+        assertNull(jwtUtil.getVerifiedSubject(token));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not json", "[]", "{", "{\"sub\":\"alice\"", "{\"sub\":\"alice\"}x", "{\"sub\":1}",
+            "{\"sub\":\"alice\",\"exp\":\"soon\"}", "{\"sub\":\"alice\",\"x\":{\"y\":1}}", "{\"sub\":\"alice\",\"x\":[1]}",
+            "{\"sub\":\"a\\q\"}", "{\"sub\":\"a\\u12\"}", "{\"exp\":99999999999}"})
+    void signedButInvalidPayloadsAreRejected(String payload) {
+        assertNull(codec.verify(signed(payload), NOW));
+    }
+
+    @Test
+    void oversizedTokensAreRejected() {
+        String padded = signed("{\"sub\":\"" + "a".repeat(5000) + "\"}");
+        assertNull(codec.verify(padded, NOW));
+
+        String garbage = "eyJhbGciOiJIUzI1NiJ9." + "A".repeat(100_000) + ".abc";
+        assertNull(codec.verify(garbage, NOW));
+        assertNull(jwtUtil.getVerifiedSubject(garbage));
+    }
+
+    private static Claims jjwtParse(String token) {
+        return Jwts.parser()
+                .verifyWith(KEY)
+                .clock(() -> new Date(NOW))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    /** Signs an arbitrary payload under the codec's fixed header. */
+    private static String signed(String payloadJson) {
+        String signingInput = "eyJhbGciOiJIUzI1NiJ9." + base64(payloadJson);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(KEY);
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static char flip(char c) {
+        return base64Char(base64Value(c) ^ 0x20);
+    }
+
+    private static int base64Value(char c) {
+        return "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".indexOf(c);
+    }
+
+    private static char base64Char(int value) {
+        return "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".charAt(value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.funproj.fun.security;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Table-driven check that {@link RoutePolicy} makes the same decisions as the
+ * {@code pathMatchers(...)} rules it replaced in {@link SecurityConfig}.
+ *
+ * <p>Service routes ({@code /users/export}) are served by their own filter chain and
+ * were never in the public list, so {@code pathMatchers} treats them as protected.
+ *
+ * <p>Trailing slashes follow Spring 6 {@code PathPattern}: {@code /login/} is protected
+ * like any other unknown path, while {@code /css/} stays public through {@code /css/**}.
+ */
+class RoutePolicyTests {
+
+    /** The rules as they were declared before the route table existed. */
+    private static final ServerWebExchangeMatcher PATH_MATCHERS = ServerWebExchangeMatchers.pathMatchers(
+            "/", "/login", "/register", "/css/**", "/js/**", "/auth/**");
+
+    private final RoutePolicy routePolicy = new RoutePolicy();
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+            "/,                 PUBLIC",
+            "/login,            PUBLIC",
+            "/login/,           AUTHENTICATED",
+            "/login//,          AUTHENTICATED",
+            "/loginx,           AUTHENTICATED",
+            "/login/x,          AUTHENTICATED",
+            "/register,         PUBLIC",
+            "/register/,        AUTHENTICATED",
+            "/css,              PUBLIC",
+            "/css/,             PUBLIC",
+            "/css/a/b,          PUBLIC",
+            "/css//a,           PUBLIC",
+            "/cssx,             AUTHENTICATED",
+            "/js/app.js,        PUBLIC",
+            "/auth,             PUBLIC",
+            "/auth/x,           PUBLIC",
+            "/auth/x/,          PUBLIC",
+            "/home,             AUTHENTICATED",
+            "/home/,            AUTHENTICATED",
+            "/users/export,     SERVICE",
+            "/users/export/,    AUTHENTICATED",
+            "/users,            AUTHENTICATED",
+            "/LOGIN,            AUTHENTICATED",
+            "/login;jsessionid=1, PUBLIC",
+    })
+    void resolvesLikePathMatchers(String path, RoutePolicy.Access expected) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+
+        assertEquals(expected, routePolicy.resolve(exchange.getRequest()));
+        boolean matched = PATH_MATCHERS.matches(exchange).block().isMatch();
+        assertEquals(expected == RoutePolicy.Access.PUBLIC, matched, "pathMatchers disagrees for " + path);
+        assertEquals(matched, routePolicy.publicRoutes().matches(exchange).block().isMatch());
+        assertEquals(expected == RoutePolicy.Access.SERVICE, routePolicy.serviceRoutes().matches(exchange).block().isMatch());
+    }
+}
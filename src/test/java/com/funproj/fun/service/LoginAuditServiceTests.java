@@ -0,0 +1,245 @@
+package com.funproj.fun.service;
+
+import com.funproj.fun.model.LoginEvent;
+import com.funproj.fun.repository.LoginEventRepository;
+import com.funproj.fun.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exercises the login audit pipeline against the embedded H2 primary.
+ *
+ * <p>Each test builds its own {@link LoginAuditService} so capacity, batch size and flush
+ * interval can be chosen per scenario. Events recorded before {@code start()} are all
+ * drained by one flush, which keeps the batch layout of a flush deterministic. Event inserts go to the real "login_events" table;
+ * last-login updates go to a mock so they can be counted per user.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LoginAuditServiceTests {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    LoginEventRepository loginEventRepository;
+    @Autowired
+    DatabaseClient databaseClient;
+
+    UserRepository userRepository;
+    SimpleMeterRegistry meterRegistry;
+    LoginAuditService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.updateLastLoginAt(anyString(), any())).thenReturn(Mono.just(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.drain();
+        }
+        databaseClient.sql("DELETE FROM login_events WHERE username LIKE 'audit-test-%'").then().block();
+    }
+
+    @Test
+    void coalescesLastLoginUpdatesAcrossBatchesOfOneFlush() {
+        // queued before the loop starts, so the shutdown flush drains all of it in 3 batches
+        service = create(100, 2, NEVER);
+        for (int i = 0; i < 5; i++) {
+            service.record(success("audit-test-alice", T0.plusMinutes(i)));
+        }
+        service.start();
+        service.drain();
+
+        assertEquals(5, counter("login.audit.flushed"));
+        verify(userRepository, times(1)).updateLastLoginAt(anyString(), any());
+        verify(userRepository).updateLastLoginAt("audit-test-alice", T0.plusMinutes(4));
+        assertEquals(5, storedEvents());
+    }
+
+    @Test
+    void coalescesLastLoginUpdatesPerUserPerBatch() {
+        service = start(100, 4, NEVER);
+        service.record(success("audit-test-alice", T0));
+        service.record(success("audit-test-alice", T0.plusMinutes(5)));
+        service.record(success("audit-test-bob", T0));
+        service.record(failure("audit-test-carol", T0));
+
+        await(() -> counter("login.audit.flushed") == 4);
+        verify(userRepository, times(2)).updateLastLoginAt(anyString(), any());
+        verify(userRepository, times(1)).updateLastLoginAt(eq("audit-test-alice"), any());
+        verify(userRepository).updateLastLoginAt("audit-test-alice", T0.plusMinutes(5));
+        verify(userRepository).updateLastLoginAt(eq("audit-test-bob"), eq(T0));
+        verify(userRepository, never()).updateLastLoginAt(eq("audit-test-carol"), any());
+        assertEquals(4, storedEvents());
+    }
+
+    @Test
+    void countsLastLoginFailuresSeparatelyFromLostEvents() {
+        when(userRepository.updateLastLoginAt(eq("audit-test-broken"), any()))
+                .thenReturn(Mono.error(new IllegalStateException("update failed")));
+        service = create(100, 100, NEVER);
+        service.record(success("audit-test-broken", T0));
+        service.record(success("audit-test-alice", T0));
+        service.start();
+        service.drain();
+
+        assertEquals(2, counter("login.audit.flushed"));
+        assertEquals(0, counter("login.audit.failed"));
+        assertEquals(1, counter("login.audit.last-login.failed"));
+        verify(userRepository).updateLastLoginAt("audit-test-alice", T0);
+        assertEquals(2, storedEvents());
+    }
+
+    @Test
+    void countsFailedInsertsAsLostEvents() {
+        service = create(100, 1, NEVER);
+        service.record(success("audit-test-" + "x".repeat(300), T0)); // longer than the username column
+        service.record(success("audit-test-alice", T0));
+        service.start();
+        service.drain();
+
+        assertEquals(1, counter("login.audit.failed"));
+        assertEquals(1, counter("login.audit.flushed"));
+        assertEquals(0, counter("login.audit.last-login.failed"));
+        verify(userRepository, times(1)).updateLastLoginAt(anyString(), any());
+        verify(userRepository).updateLastLoginAt("audit-test-alice", T0);
+        assertEquals(1, storedEvents());
+    }
+
+    @Test
+    void countsDroppedEventsWhenQueueIsFull() {
+        service = start(2, 100, NEVER);
+        service.record(success("audit-test-a", T0));
+        service.record(success("audit-test-b", T0));
+        service.record(success("audit-test-c", T0));
+
+        assertEquals(2, counter("login.audit.recorded"));
+        assertEquals(1, counter("login.audit.dropped"));
+        assertEquals(2, meterRegistry.get("login.audit.queue.size").gauge().value());
+    }
+
+    @Test
+    void flushesWhenBatchSizeIsReached() {
+        service = start(100, 3, NEVER);
+        service.record(success("audit-test-a", T0));
+        service.record(success("audit-test-b", T0));
+        assertEquals(0, counter("login.audit.flushed"));
+
+        service.record(success("audit-test-c", T0));
+        await(() -> counter("login.audit.flushed") == 3);
+        assertEquals(3, storedEvents());
+    }
+
+    @Test
+    void flushesWhenIntervalElapses() {
+        service = start(100, 100, Duration.ofMillis(200));
+        service.record(success("audit-test-a", T0));
+
+        await(() -> counter("login.audit.flushed") == 1);
+        assertEquals(1, storedEvents());
+    }
+
+    @Test
+    void drainsQueueOnShutdown() {
+        service = start(100, 100, NEVER);
+        for (int i = 0; i < 5; i++) {
+            service.record(failure("audit-test-" + i, T0));
+        }
+        assertEquals(0, counter("login.audit.flushed"));
+
+        service.drain();
+        assertEquals(5, counter("login.audit.flushed"));
+        assertEquals(5, storedEvents());
+
+        service.record(failure("audit-test-late", T0));
+        assertEquals(1, counter("login.audit.dropped"));
+        service = null;
+    }
+
+    @Test
+    void recordsRacingShutdownAreWrittenOrDropped() throws InterruptedException {
+        service = start(10_000, 50, NEVER);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                service.record(failure("audit-test-race", T0));
+            }
+        });
+        producer.start();
+        service.drain();
+        producer.join();
+
+        assertEquals(2000, counter("login.audit.flushed") + counter("login.audit.dropped"));
+        assertEquals(counter("login.audit.flushed"), storedEvents());
+        assertEquals(0, meterRegistry.get("login.audit.queue.size").gauge().value());
+    }
+
+    private LoginAuditService start(int capacity, int batchSize, Duration flushInterval) {
+        LoginAuditService audit = create(capacity, batchSize, flushInterval);
+        audit.start();
+        return audit;
+    }
+
+    private LoginAuditService create(int capacity, int batchSize, Duration flushInterval) {
+        return new LoginAuditService(loginEventRepository, userRepository, meterRegistry,
+                capacity, batchSize, flushInterval, Duration.ofSeconds(10));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private long storedEvents() {
+        return databaseClient.sql("SELECT COUNT(*) FROM login_events WHERE username LIKE 'audit-test-%'")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private static LoginEvent success(String username, LocalDateTime at) {
+        return new LoginEvent(username, LoginEvent.Outcome.SUCCESS, at);
+    }
+
+    private static LoginEvent failure(String username, LocalDateTime at) {
+        return new LoginEvent(username, LoginEvent.Outcome.FAILURE, at);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
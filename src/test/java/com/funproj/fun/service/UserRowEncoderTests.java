@@ -0,0 +1,107 @@
+package com.funproj.fun.service;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.r2dbc.spi.Readable;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that {@link UserRowEncoder} never leaks or double-frees a buffer when it is
+ * released on one thread while rows are still being appended on another, as happens
+ * when an export is cancelled while the driver is emitting.
+ */
+class UserRowEncoderTests {
+
+    private static final int FLUSH_THRESHOLD = 256;
+
+    @Test
+    void ignoresRowsAfterRelease() {
+        TrackingBufferFactory factory = new TrackingBufferFactory();
+        UserRowEncoder encoder = new UserRowEncoder(UserExportService.Format.CSV, factory, FLUSH_THRESHOLD, true);
+
+        encoder.release();
+        encoder.release();
+
+        assertFalse(encoder.append(row()));
+        assertNull(encoder.take());
+        assertNull(encoder.finish());
+        assertAllReleased(factory);
+    }
+
+    @Test
+    void releaseRacingAppendLeaksNothing() throws InterruptedException {
+        for (int run = 0; run < 200; run++) {
+            TrackingBufferFactory factory = new TrackingBufferFactory();
+            UserRowEncoder encoder = new UserRowEncoder(UserExportService.Format.NDJSON, factory, FLUSH_THRESHOLD, false);
+            Readable row = row();
+            AtomicReference<Throwable> driverError = new AtomicReference<>();
+
+            Thread driver = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (encoder.append(row)) {
+                        DataBuffer full = encoder.take();
+                        if (full != null) {
+                            DataBufferUtils.release(full); // what the subscriber does with emitted buffers
+                        }
+                    }
+                }
+                DataBuffer last = encoder.finish();
+                if (last != null) {
+                    DataBufferUtils.release(last);
+                }
+            });
+            driver.setUncaughtExceptionHandler((thread, error) -> driverError.set(error));
+            driver.start();
+            encoder.release(); // cancellation on another thread
+            driver.join();
+
+            assertNull(driverError.get(), "driver thread failed");
+            assertAllReleased(factory);
+        }
+    }
+
+    private static Readable row() {
+        Readable row = mock(Readable.class);
+        when(row.get(anyInt(), eq(String.class))).thenReturn("value");
+        return row;
+    }
+
+    private static void assertAllReleased(TrackingBufferFactory factory) {
+        for (NettyDataBuffer buffer : factory.allocated) {
+            assertTrue(!buffer.isAllocated(), "buffer leaked: " + buffer);
+        }
+    }
+
+    /**
+     * Pooled Netty buffers, recorded so the test can check each one was released.
+     */
+    private static final class TrackingBufferFactory extends NettyDataBufferFactory {
+        private final List<NettyDataBuffer> allocated = new CopyOnWriteArrayList<>();
+
+        TrackingBufferFactory() {
+            super(PooledByteBufAllocator.DEFAULT);
+        }
+
+        @Override
+        public NettyDataBuffer allocateBuffer(int initialCapacity) {
+            NettyDataBuffer buffer = super.allocateBuffer(initialCapacity);
+            allocated.add(buffer);
+            return buffer;
+        }
+    }
+}